@@ -0,0 +1,95 @@
+package com.github.slfotg.chess.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.evaluate.BoardEvaluationFunction;
+import com.github.slfotg.chess.evaluate.EvaluationPipeline;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+import com.github.slfotg.chess.evaluate.NnueEvaluationFunction;
+import com.github.slfotg.chess.evaluate.NnueNetwork;
+import com.github.slfotg.chess.evaluate.PieceSquareEvaluationFunction;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.MoveList;
+
+/**
+ * Evaluates every position reachable in one move, as a search would at the
+ * leaves, both as game states and by making each move on a search board
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluationBenchmark {
+
+    @Param({ Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME })
+    private String position;
+
+    @Param({ "naive", "pieceSquare", "pipeline", "nnue" })
+    private String evaluation;
+
+    private BoardEvaluationFunction evaluationFunction;
+    private List<GameState> states;
+    private SearchBoard searchBoard;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setup() {
+        switch (evaluation) {
+        case "naive":
+            evaluationFunction = new NaiveEvaluationFunction();
+            break;
+        case "pieceSquare":
+            evaluationFunction = new PieceSquareEvaluationFunction();
+            break;
+        case "nnue":
+            // random weights cost the same to evaluate as trained ones
+            evaluationFunction = new NnueEvaluationFunction(NnueNetwork.random(1L, 4, 256, 32));
+            break;
+        default:
+            evaluationFunction = EvaluationPipeline.standard();
+        }
+        states = Positions.get(position).nextPossibleStates();
+        searchBoard = new SearchBoard(Positions.get(position));
+        new ChessMoveGenerator().generateLegalMoves(searchBoard, moves);
+        // a search evaluates the parents of its leaves too, which lets
+        // incremental evaluations update from them
+        evaluationFunction.evaluate(searchBoard);
+    }
+
+    @Benchmark
+    public double evaluate() {
+        double sum = 0;
+        for (GameState state : states) {
+            sum += evaluationFunction.evaluate(state);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double evaluateSearchBoard() {
+        double sum = 0;
+        for (int i = 0; i < moves.size(); i += 1) {
+            searchBoard.makeMove(moves.get(i));
+            sum += evaluationFunction.evaluate(searchBoard);
+            searchBoard.unmakeMove();
+        }
+        return sum;
+    }
+}
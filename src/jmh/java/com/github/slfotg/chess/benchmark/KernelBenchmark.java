@@ -0,0 +1,122 @@
+package com.github.slfotg.chess.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.slfotg.chess.evaluate.EvaluationKernels;
+import com.github.slfotg.chess.evaluate.NnueNetwork;
+import com.github.slfotg.chess.evaluate.ScalarKernels;
+
+/**
+ * The evaluation kernels on their own, at the sizes of a network with 256
+ * hidden values per side, comparing the scalar kernels with the Vector API
+ * ones. The vector kernels are only in benchmarks.jar when it is built on JDK
+ * 16 or later, and need the module added to the forked JVMs:
+ * {@code java -jar target/benchmarks.jar Kernel -jvmArgsAppend --add-modules=jdk.incubator.vector}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+    private static final int ROWS = 768;
+    private static final int LAYER_SIZE = 32;
+    // not on the class path of a JDK 11 build
+    private static final String VECTOR_KERNELS = "com.github.slfotg.chess.evaluate.VectorKernels";
+
+    @Param({ "256" })
+    private int length;
+
+    @Param({ "scalar", "vector" })
+    private String kernels;
+
+    private EvaluationKernels implementation;
+    private short[] weights;
+    private short[] accumulators;
+    private byte[] activations;
+    private long[] layerWeights;
+    private final long[] sums = new long[LAYER_SIZE / 2];
+    private final int[] added = new int[32];
+    private final int[] removed = new int[2];
+
+    @Setup
+    public void setup() {
+        implementation = EvaluationKernels.select(kernels.equals("vector") ? VECTOR_KERNELS : ScalarKernels.class.getName());
+        if (!implementation.getName().equals(kernels)) {
+            // selecting falls back to the scalar kernels, which would be measured twice
+            throw new IllegalStateException("the " + kernels + " kernels are not available");
+        }
+        SplittableRandom random = new SplittableRandom(1L);
+        weights = new short[ROWS * length];
+        for (int i = 0; i < weights.length; i += 1) {
+            weights[i] = (short) random.nextInt(-24, 25);
+        }
+        accumulators = new short[2 * length];
+        activations = new byte[2 * length];
+        layerWeights = new long[2 * length * LAYER_SIZE / 2];
+        for (int i = 0; i < layerWeights.length; i += 1) {
+            layerWeights[i] = ((long) random.nextInt(-32, 33) << 32) + random.nextInt(-32, 33);
+        }
+        for (int i = 0; i < accumulators.length; i += 1) {
+            // about half the activations are clipped to 0
+            accumulators[i] = (short) random.nextInt(-128, 128);
+        }
+        for (int i = 0; i < added.length; i += 1) {
+            added[i] = random.nextInt(ROWS) * length;
+        }
+        removed[0] = random.nextInt(ROWS) * length;
+        removed[1] = random.nextInt(ROWS) * length;
+    }
+
+    /**
+     * An accumulator following a quiet move
+     */
+    @Benchmark
+    public short quietMove() {
+        implementation.update(accumulators, 0, accumulators, length, weights, added, 1, removed, 1, length);
+        return accumulators[length];
+    }
+
+    /**
+     * An accumulator following a capture
+     */
+    @Benchmark
+    public short capture() {
+        implementation.update(accumulators, 0, accumulators, length, weights, added, 1, removed, 2, length);
+        return accumulators[length];
+    }
+
+    /**
+     * An accumulator summed over all 32 pieces of the initial position
+     */
+    @Benchmark
+    public short refresh() {
+        implementation.update(accumulators, 0, accumulators, length, weights, added, 32, removed, 0, length);
+        return accumulators[length];
+    }
+
+    /**
+     * Clipping both accumulators and the dense layer of 32 neurons
+     */
+    @Benchmark
+    public long clipAndAffine() {
+        implementation.clip(accumulators, 0, activations, 0, 2 * length, NnueNetwork.ACTIVATION_MAX);
+        implementation.affine(activations, 2 * length, layerWeights, sums, LAYER_SIZE / 2);
+        return sums[0];
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.slfotg.chess.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.util.PositionInverter;
+
+/**
+ * Applies every legal move of a position once per invocation
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveApplicationBenchmark {
+
+    @Param({ Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME })
+    private String position;
+
+    private final PositionInverter positionInverter = new PositionInverter();
+    private GameState gameState;
+    private Board board;
+    private List<ChessMove> chessMoves;
+    private SearchBoard searchBoard;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setup() {
+        gameState = Positions.get(position);
+        board = gameState.getBoard();
+        chessMoves = gameState.getPossibleMoves();
+        searchBoard = new SearchBoard(gameState);
+        new ChessMoveGenerator().generateLegalMoves(searchBoard, moves);
+    }
+
+    @Benchmark
+    public void gameStateApplyMove(Blackhole blackhole) {
+        for (ChessMove chessMove : chessMoves) {
+            blackhole.consume(gameState.applyMove(chessMove));
+        }
+    }
+
+    @Benchmark
+    public void chessMoveApplyMove(Blackhole blackhole) {
+        for (ChessMove chessMove : chessMoves) {
+            blackhole.consume(chessMove.applyMove(board));
+        }
+    }
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        long keys = 0L;
+        for (int i = 0; i < moves.size(); i += 1) {
+            searchBoard.makeMove(moves.get(i));
+            keys ^= searchBoard.getZobristKey();
+            searchBoard.unmakeMove();
+        }
+        return keys;
+    }
+
+    @Benchmark
+    public Board invertBoard() {
+        return positionInverter.invertBoard(board);
+    }
+}
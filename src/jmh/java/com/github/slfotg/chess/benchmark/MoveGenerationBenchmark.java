@@ -0,0 +1,68 @@
+package com.github.slfotg.chess.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.MoveList;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+
+    @Param({ Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME })
+    private String position;
+
+    private final ChessMoveGenerator moveGenerator = new ChessMoveGenerator();
+    private final MoveList moves = new MoveList();
+    private SearchBoard searchBoard;
+
+    @Setup
+    public void setup() {
+        searchBoard = new SearchBoard(Positions.get(position));
+    }
+
+    // a game state keeps its move list, so the decoded moves are generated from
+    // the search board
+    @Benchmark
+    public List<ChessMove> possibleMoves() {
+        return moveGenerator.getPossibleMoves(searchBoard);
+    }
+
+    @Benchmark
+    public int legalMoves() {
+        moveGenerator.generateLegalMoves(searchBoard, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int pseudoLegalMoves() {
+        moveGenerator.generatePseudoLegalMoves(searchBoard, moves);
+        return moves.size();
+    }
+
+    // the uncached test behind BitboardPosition.getCheckers
+    @Benchmark
+    public boolean isInCheck() {
+        int us = searchBoard.getSideToMoveIndex();
+        return searchBoard.isAttacked(searchBoard.getKingSquare(us), us ^ 1);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.slfotg.chess.benchmark;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+import com.github.slfotg.chess.search.ParallelSearch;
+import com.github.slfotg.chess.search.SearchLimits;
+import com.github.slfotg.chess.search.SearchResult;
+import com.github.slfotg.chess.search.TranspositionTable;
+
+/**
+ * Time to search a position to a fixed depth with a growing number of Lazy SMP
+ * threads. The table and the move ordering of every thread are cleared
+ * before every search so no run profits from the one before it.
+ *
+ * Run the main method (java -cp target/benchmarks.jar
+ * com.github.slfotg.chess.benchmark.ParallelSearchBenchmark, JMH options such
+ * as -p threads=1,16,32 are accepted) to also get the speedup of every thread
+ * count over a single thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+
+    @Param({ Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME })
+    private String position;
+
+    @Param({ "1", "2", "4", "8" })
+    private int threads;
+
+    @Param({ "8" })
+    private int depth;
+
+    private GameState state;
+    private ParallelSearch search;
+
+    @Setup
+    public void setup() {
+        state = Positions.get(position);
+        search = new ParallelSearch(new NaiveEvaluationFunction(), threads, new TranspositionTable(64));
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTranspositionTable().clear();
+        search.clearMoveOrdering();
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult searchToDepth() {
+        return search.search(state, SearchLimits.depth(depth));
+    }
+
+    public static void main(String... args) throws CommandLineOptionException, RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(new CommandLineOptions(args));
+        options.include(ParallelSearchBenchmark.class.getSimpleName());
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        Map<String, Double> singleThreaded = new HashMap<>();
+        for (RunResult result : results) {
+            if ("1".equals(result.getParams().getParam("threads"))) {
+                singleThreaded.put(key(result), result.getPrimaryResult().getScore());
+            }
+        }
+        System.out.println();
+        System.out.println(String.format("%-12s %6s %7s %12s %8s", "position", "depth", "threads", "ms to depth",
+                "speedup"));
+        for (RunResult result : results) {
+            double time = result.getPrimaryResult().getScore();
+            Double baseline = singleThreaded.get(key(result));
+            // @formatter:off
+            System.out.println(String.format("%-12s %6s %7s %12.1f %8s",
+                    result.getParams().getParam("position"),
+                    result.getParams().getParam("depth"),
+                    result.getParams().getParam("threads"),
+                    time,
+                    baseline == null ? "-" : String.format("%.2fx", baseline / time)));
+            // @formatter:on
+        }
+    }
+
+    private static String key(RunResult result) {
+        return result.getParams().getParam("position") + "/" + result.getParams().getParam("depth");
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.slfotg.chess.benchmark;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.EncodedChessMove;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.reader.FenReader;
+
+/**
+ * The fixed corpus of positions every benchmark runs on (selected with the
+ * "position" parameter). The corpus must not change between releases or the
+ * results can no longer be compared.
+ */
+final class Positions {
+
+    static final String OPENING = "opening";
+    static final String MIDDLEGAME = "middlegame";
+    static final String ENDGAME = "endgame";
+
+    private Positions() {
+    }
+
+    static GameState get(String name) {
+        switch (name) {
+        case OPENING:
+            // Ruy Lopez
+            return play("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6");
+        case MIDDLEGAME:
+            // Giuoco Pianissimo after both sides castled
+            return play("e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6", "e1g1",
+                    "e8g8", "b1d2", "a7a6", "a2a4", "c8e6", "f1e1", "h7h6");
+        case ENDGAME:
+            return rookEndgame();
+        default:
+            throw new IllegalArgumentException("unknown position " + name);
+        }
+    }
+
+    /**
+     * Play moves given in coordinate notation from the initial position
+     */
+    private static GameState play(String... moves) {
+        GameState state = ChessGame.newGame().getGameState();
+        for (String move : moves) {
+            state = state.applyMove(find(state, move));
+        }
+        return state;
+    }
+
+    private static ChessMove find(GameState state, String move) {
+        for (ChessMove chessMove : state.getPossibleMoves()) {
+            if (Move.toString(((EncodedChessMove) chessMove).getMove()).equals(move)) {
+                return chessMove;
+            }
+        }
+        throw new IllegalArgumentException("illegal move " + move);
+    }
+
+    private static GameState rookEndgame() {
+        return new FenReader().read("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+    }
+}
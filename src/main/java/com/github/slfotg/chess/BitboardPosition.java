@@ -0,0 +1,172 @@
+package com.github.slfotg.chess;
+
+import com.github.slfotg.chess.bitboard.Bitboards;
+import com.github.slfotg.chess.bitboard.MagicBitboards;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.util.Zobrist;
+
+/**
+ * Bitboard view of a position that is never inverted for the side to move, so
+ * moves can be generated for either color directly. Implemented by the
+ * immutable {@link GameState} and the mutable {@link SearchBoard}.
+ *
+ * Colors are indexed by {@link com.github.slfotg.chess.enums.Color#ordinal()}
+ * and squares by {@link com.github.slfotg.chess.enums.Position#getIndex()}.
+ */
+public interface BitboardPosition {
+
+    int NO_SQUARE = -1;
+
+    int WHITE = 0;
+    int BLACK = 1;
+
+    int WHITE_KING_SIDE = 1;
+    int WHITE_QUEEN_SIDE = 2;
+    int BLACK_KING_SIDE = 4;
+    int BLACK_QUEEN_SIDE = 8;
+
+    int getSideToMoveIndex();
+
+    /**
+     * Get the bitboard of one piece type
+     *
+     * @param color the color index
+     * @param piece the piece ordinal
+     * @return
+     */
+    long getBitboard(int color, int piece);
+
+    default long getBitboard(int color, Piece piece) {
+        return getBitboard(color, piece.ordinal());
+    }
+
+    long getOccupancy(int color);
+
+    default long getOccupancy() {
+        return getOccupancy(WHITE) | getOccupancy(BLACK);
+    }
+
+    /**
+     * Returns the castling rights of both players as a combination of
+     * WHITE_KING_SIDE, WHITE_QUEEN_SIDE, BLACK_KING_SIDE and BLACK_QUEEN_SIDE
+     *
+     * @return
+     */
+    int getCastlingRights();
+
+    /**
+     * Returns the square a pawn can capture en passant on or NO_SQUARE
+     *
+     * @return
+     */
+    int getEnPassantSquare();
+
+    default int getKingSquare(int color) {
+        return Long.numberOfTrailingZeros(getBitboard(color, Piece.KING));
+    }
+
+    /**
+     * Returns true if any piece of the given color attacks the square
+     *
+     * @param square the square index
+     * @param color  the color index of the attacking side
+     * @return
+     */
+    default boolean isAttacked(int square, int color) {
+        if ((Bitboards.pawnAttacks(color ^ 1, square) & getBitboard(color, Piece.PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.knightAttacks(square) & getBitboard(color, Piece.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Bitboards.kingAttacks(square) & getBitboard(color, Piece.KING)) != 0) {
+            return true;
+        }
+        long occupied = getOccupancy();
+        long queens = getBitboard(color, Piece.QUEEN);
+        long bishops = getBitboard(color, Piece.BISHOP) | queens;
+        long rooks = getBitboard(color, Piece.ROOK) | queens;
+        return (MagicBitboards.bishopAttacks(square, occupied) & bishops) != 0
+                || (MagicBitboards.rookAttacks(square, occupied) & rooks) != 0;
+    }
+
+    /**
+     * Get the pieces of a color attacking a square
+     *
+     * @param square   the attacked square
+     * @param color    the color index of the attacking side
+     * @param occupied the occupancy used to block sliding pieces
+     * @return
+     */
+    default long getAttackers(int square, int color, long occupied) {
+        long queens = getBitboard(color, Piece.QUEEN);
+        // @formatter:off
+        return (Bitboards.pawnAttacks(color ^ 1, square) & getBitboard(color, Piece.PAWN))
+                | (Bitboards.knightAttacks(square) & getBitboard(color, Piece.KNIGHT))
+                | (Bitboards.kingAttacks(square) & getBitboard(color, Piece.KING))
+                | (MagicBitboards.bishopAttacks(square, occupied) & (getBitboard(color, Piece.BISHOP) | queens))
+                | (MagicBitboards.rookAttacks(square, occupied) & (getBitboard(color, Piece.ROOK) | queens));
+        // @formatter:on
+    }
+
+    /**
+     * Returns the opponent pieces attacking the king of the side to move.
+     * Implementations may compute this once per position.
+     *
+     * @return
+     */
+    default long getCheckers() {
+        int us = getSideToMoveIndex();
+        return getAttackers(getKingSquare(us), us ^ 1, getOccupancy());
+    }
+
+    /**
+     * Returns every square attacked by the opponent of the side to move. The
+     * king of the side to move does not block sliding pieces here, so the set is
+     * exactly the squares the king may not move to. Move generation tests the
+     * king's few destinations one by one instead, which is cheaper than building
+     * this set at every node.
+     *
+     * @return
+     */
+    default long getOpponentAttacks() {
+        int them = getSideToMoveIndex() ^ 1;
+        long occupied = getOccupancy() & ~getBitboard(them ^ 1, Piece.KING);
+        long attacks = 0L;
+        for (long pieces = getBitboard(them, Piece.PAWN); pieces != 0; pieces &= pieces - 1) {
+            attacks |= Bitboards.pawnAttacks(them, Long.numberOfTrailingZeros(pieces));
+        }
+        for (long pieces = getBitboard(them, Piece.KNIGHT); pieces != 0; pieces &= pieces - 1) {
+            attacks |= Bitboards.knightAttacks(Long.numberOfTrailingZeros(pieces));
+        }
+        long queens = getBitboard(them, Piece.QUEEN);
+        for (long pieces = getBitboard(them, Piece.BISHOP) | queens; pieces != 0; pieces &= pieces - 1) {
+            attacks |= MagicBitboards.bishopAttacks(Long.numberOfTrailingZeros(pieces), occupied);
+        }
+        for (long pieces = getBitboard(them, Piece.ROOK) | queens; pieces != 0; pieces &= pieces - 1) {
+            attacks |= MagicBitboards.rookAttacks(Long.numberOfTrailingZeros(pieces), occupied);
+        }
+        return attacks | Bitboards.kingAttacks(getKingSquare(them));
+    }
+
+    /**
+     * Returns the Zobrist key of the pawns alone, which identifies the pawn
+     * structure. Implementations may keep it up to date incrementally.
+     *
+     * @return
+     */
+    default long getPawnKey() {
+        long key = 0L;
+        for (int color = WHITE; color <= BLACK; color += 1) {
+            int coloredPawn = color * 6 + Piece.PAWN.ordinal();
+            for (long pawns = getBitboard(color, Piece.PAWN); pawns != 0; pawns &= pawns - 1) {
+                key ^= Zobrist.piece(coloredPawn, Long.numberOfTrailingZeros(pawns));
+            }
+        }
+        return key;
+    }
+
+    default boolean isInCheck() {
+        return getCheckers() != 0;
+    }
+}
@@ -11,49 +11,223 @@ import java.util.Optional;
 import com.github.slfotg.chess.enums.Piece;
 import com.github.slfotg.chess.enums.Position;
 
-import lombok.Getter;
+import lombok.EqualsAndHashCode;
 
-@Getter
+/**
+ * Immutable bitboard representation of the pieces on the board. Each side has
+ * one bitboard per piece type (indexed by {@link Piece#ordinal()}) and the
+ * square index of each bit is given by {@link Position#getIndex()}.
+ *
+ * Boards that are not seen from a player's side (such as
+ * {@link GameState#getBoard()}) hold White's pieces as the current pieces.
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public class Board {
 
-    private final Map<Position, Piece> currentPieces;
-    private final Map<Position, Piece> opponentPieces;
-    private final Position kingPosition;
-    private final Position opponentKingPosition;
+    private static final Piece[] PIECES = Piece.values();
+    private static final int PIECE_COUNT = PIECES.length;
+    private static final int CURRENT = 0;
+    private static final int OPPONENT = PIECE_COUNT;
+
+    // current player's bitboards followed by the opponent's
+    @EqualsAndHashCode.Include
+    private final long[] bitboards;
+    private final long currentOccupancy;
+    private final long opponentOccupancy;
+
+    // lazily built map views (kings are not included)
+    private volatile Map<Position, Piece> currentPieces;
+    private volatile Map<Position, Piece> opponentPieces;
 
     public Board(Map<Position, Piece> currentPieces, Map<Position, Piece> opponentPieces, Position kingPosition,
             Position oponentKingPosition) {
-        this.currentPieces =
-                currentPieces.isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentPieces);
-        this.opponentPieces =
-                opponentPieces.isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(opponentPieces);
-        this.kingPosition = kingPosition;
-        this.opponentKingPosition = oponentKingPosition;
+        this(toBitboards(currentPieces, opponentPieces, kingPosition, oponentKingPosition));
+    }
+
+    /**
+     * Create a board from one bitboard per piece type for each side
+     * 
+     * @param currentBitboards  the current player's bitboards indexed by
+     *                          Piece ordinal
+     * @param opponentBitboards the opponent's bitboards indexed by Piece ordinal
+     */
+    public Board(long[] currentBitboards, long[] opponentBitboards) {
+        this(concat(currentBitboards, opponentBitboards));
+    }
+
+    private Board(long[] bitboards) {
+        this.bitboards = bitboards;
+        this.currentOccupancy = occupancy(bitboards, CURRENT);
+        this.opponentOccupancy = occupancy(bitboards, OPPONENT);
+    }
+
+    private static long[] toBitboards(Map<Position, Piece> currentPieces, Map<Position, Piece> opponentPieces,
+            Position kingPosition, Position opponentKingPosition) {
+        long[] bitboards = new long[PIECE_COUNT * 2];
+        currentPieces.forEach((position, piece) -> bitboards[CURRENT + piece.ordinal()] |= position.getMask());
+        opponentPieces.forEach((position, piece) -> bitboards[OPPONENT + piece.ordinal()] |= position.getMask());
+        if (kingPosition != null) {
+            bitboards[CURRENT + Piece.KING.ordinal()] |= kingPosition.getMask();
+        }
+        if (opponentKingPosition != null) {
+            bitboards[OPPONENT + Piece.KING.ordinal()] |= opponentKingPosition.getMask();
+        }
+        return bitboards;
+    }
+
+    private static long[] concat(long[] currentBitboards, long[] opponentBitboards) {
+        long[] bitboards = new long[PIECE_COUNT * 2];
+        System.arraycopy(currentBitboards, 0, bitboards, CURRENT, PIECE_COUNT);
+        System.arraycopy(opponentBitboards, 0, bitboards, OPPONENT, PIECE_COUNT);
+        return bitboards;
+    }
+
+    private static long occupancy(long[] bitboards, int offset) {
+        long occupancy = 0L;
+        for (int i = offset; i < offset + PIECE_COUNT; i += 1) {
+            occupancy |= bitboards[i];
+        }
+        return occupancy;
+    }
+
+    private static Map<Position, Piece> toMap(long[] bitboards, int offset) {
+        Map<Position, Piece> pieces = new EnumMap<>(Position.class);
+        for (Piece piece : PIECES) {
+            if (piece == Piece.KING) {
+                continue;
+            }
+            for (long bits = bitboards[offset + piece.ordinal()]; bits != 0; bits &= bits - 1) {
+                pieces.put(Position.fromIndex(Long.numberOfTrailingZeros(bits)), piece);
+            }
+        }
+        return Collections.unmodifiableMap(pieces);
+    }
+
+    private static Position kingPosition(long kingBitboard) {
+        return kingBitboard == 0 ? null : Position.fromIndex(Long.numberOfTrailingZeros(kingBitboard));
     }
 
     public Map<Position, Piece> getCurrentPieces() {
-        return Collections.unmodifiableMap(currentPieces);
+        Map<Position, Piece> pieces = currentPieces;
+        if (pieces == null) {
+            pieces = toMap(bitboards, CURRENT);
+            currentPieces = pieces;
+        }
+        return pieces;
     }
 
     public Map<Position, Piece> getOpponentPieces() {
-        return Collections.unmodifiableMap(opponentPieces);
+        Map<Position, Piece> pieces = opponentPieces;
+        if (pieces == null) {
+            pieces = toMap(bitboards, OPPONENT);
+            opponentPieces = pieces;
+        }
+        return pieces;
+    }
+
+    public Position getKingPosition() {
+        return kingPosition(bitboards[CURRENT + Piece.KING.ordinal()]);
+    }
+
+    public Position getOpponentKingPosition() {
+        return kingPosition(bitboards[OPPONENT + Piece.KING.ordinal()]);
+    }
+
+    public long getCurrentBitboard(Piece piece) {
+        return bitboards[CURRENT + piece.ordinal()];
+    }
+
+    public long getOpponentBitboard(Piece piece) {
+        return bitboards[OPPONENT + piece.ordinal()];
+    }
+
+    public long getCurrentOccupancy() {
+        return currentOccupancy;
+    }
+
+    public long getOpponentOccupancy() {
+        return opponentOccupancy;
+    }
+
+    public long getOccupancy() {
+        return currentOccupancy | opponentOccupancy;
+    }
+
+    public boolean isOccupied(Position position) {
+        return (getOccupancy() & position.getMask()) != 0;
     }
 
     public Optional<Piece> pieceAt(Position position) {
-        if (currentPieces.containsKey(position)) {
-            return Optional.of(currentPieces.get(position));
+        long mask = position.getMask();
+        if ((getOccupancy() & mask) == 0) {
+            return Optional.empty();
         }
-        if (opponentPieces.containsKey(position)) {
-            return Optional.of(opponentPieces.get(position));
+        for (Piece piece : PIECES) {
+            if (((bitboards[CURRENT + piece.ordinal()] | bitboards[OPPONENT + piece.ordinal()]) & mask) != 0) {
+                return Optional.of(piece);
+            }
         }
-        if (kingPosition == position || opponentKingPosition == position) {
-            return Optional.of(KING);
+        return Optional.empty();
+    }
+
+    /**
+     * Get the board that results from the current player moving a piece
+     * 
+     * @param piece      the piece being moved
+     * @param from       the starting position of the piece
+     * @param to         the final position of the piece
+     * @param finalPiece the piece on the final position (differs from piece for
+     *                   promotions)
+     * @param captured   the position of the captured opponent piece or null
+     * @return the Board after the piece is moved
+     */
+    public Board move(Piece piece, Position from, Position to, Piece finalPiece, Position captured) {
+        return move(CURRENT, OPPONENT, piece, from, to, finalPiece, captured);
+    }
+
+    /**
+     * Get the board that results from the opponent moving a piece
+     * 
+     * @param piece      the piece being moved
+     * @param from       the starting position of the piece
+     * @param to         the final position of the piece
+     * @param finalPiece the piece on the final position (differs from piece for
+     *                   promotions)
+     * @param captured   the position of the captured current player's piece or
+     *                   null
+     * @return the Board after the piece is moved
+     */
+    public Board moveOpponent(Piece piece, Position from, Position to, Piece finalPiece, Position captured) {
+        return move(OPPONENT, CURRENT, piece, from, to, finalPiece, captured);
+    }
+
+    private Board move(int mover, int other, Piece piece, Position from, Position to, Piece finalPiece,
+            Position captured) {
+        long[] next = bitboards.clone();
+        if (captured != null) {
+            long capturedMask = ~captured.getMask();
+            for (int i = other; i < other + PIECE_COUNT; i += 1) {
+                next[i] &= capturedMask;
+            }
+        }
+        next[mover + piece.ordinal()] &= ~from.getMask();
+        next[mover + finalPiece.ordinal()] |= to.getMask();
+        return new Board(next);
+    }
+
+    /**
+     * Get the board seen from the opponent's side: the players are swapped and
+     * every position is mirrored across the middle of the board
+     * 
+     * @return the mirrored Board
+     */
+    public Board mirror() {
+        long[] mirrored = new long[PIECE_COUNT * 2];
+        for (int i = 0; i < PIECE_COUNT; i += 1) {
+            mirrored[CURRENT + i] = Long.reverseBytes(bitboards[OPPONENT + i]);
+            mirrored[OPPONENT + i] = Long.reverseBytes(bitboards[CURRENT + i]);
         }
-        return Optional.ofNullable(null);
+        return new Board(mirrored);
     }
 
     public static Board initialBoard() {
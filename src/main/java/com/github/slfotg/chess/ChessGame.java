@@ -1,9 +1,6 @@
 package com.github.slfotg.chess;
 
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -15,8 +12,7 @@ import com.github.slfotg.chess.move.ChessMove;
 public class ChessGame {
 
     private GameState gameState;
-    private List<GameState> previousStates;
-    private Map<GameState, Integer> previousStateCounts;
+    private PositionHistory history;
 
     private ChessGame() {
         // @formatter:off
@@ -29,29 +25,31 @@ public class ChessGame {
                 .opponentRights(CastlingRights.EITHER_SIDE)
                 .build();
         // @formatter:on
-        previousStates = new LinkedList<>();
-        previousStates.add(gameState);
-        initPreviousStateCounts();
+        history = PositionHistory.start(gameState);
     }
 
     public ChessGame(GameState gameState, List<GameState> previousStates) {
         this.gameState = gameState;
-        this.previousStates = new LinkedList<>(previousStates);
-        this.previousStates.add(gameState);
-        initPreviousStateCounts();
-    }
-
-    private void initPreviousStateCounts() {
-        previousStateCounts = new HashMap<>();
+        PositionHistory history = null;
         for (GameState state : previousStates) {
-            previousStateCounts.merge(state, 1, (a, b) -> a + b);
+            history = history == null ? PositionHistory.start(state) : history.next(state);
         }
+        this.history = history == null ? PositionHistory.start(gameState) : history.next(gameState);
+    }
+
+    private ChessGame(GameState gameState, PositionHistory history) {
+        this.gameState = gameState;
+        this.history = history;
     }
 
     public static ChessGame newGame() {
         return new ChessGame();
     }
 
+    public GameState getGameState() {
+        return gameState;
+    }
+
     public Board getBoard() {
         return gameState.getBoard();
     }
@@ -64,12 +62,24 @@ public class ChessGame {
         if (gameState.isInCheck()) {
             return null;
         }
-        for (int count : previousStateCounts.values()) {
-            if (count >= 3) {
-                return Result.THREE_FOLD_DRAW;
-            }
-        }
-        return null;
+        return history.isThreefold() ? Result.THREE_FOLD_DRAW : null;
+    }
+
+    /**
+     * Returns true if the current position occurred at least count times. The
+     * count is kept with the position when it is reached (by comparing keys of
+     * every second position back to the last capture or pawn move), so this is a
+     * constant time lookup.
+     *
+     * @param count
+     * @return
+     */
+    public boolean isRepetition(int count) {
+        return history.getRepetitions() >= count;
+    }
+
+    PositionHistory getHistory() {
+        return history;
     }
 
     public List<ChessMove> getPossibleMoves() {
@@ -80,12 +90,13 @@ public class ChessGame {
         // @formatter:off
         return gameState.nextPossibleStates()
                 .stream()
-                .map(s -> new ChessGame(s, previousStates))
+                .map(s -> new ChessGame(s, history.next(s)))
                 .collect(Collectors.toList());
         // @formatter:on
     }
 
     public ChessGame applyMove(ChessMove move) {
-        return new ChessGame(gameState.applyMove(move), previousStates);
+        GameState next = gameState.applyMove(move);
+        return new ChessGame(next, history.next(next));
     }
 }
@@ -0,0 +1,44 @@
+package com.github.slfotg.chess;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import com.github.slfotg.chess.evaluate.BoardEvaluationFunction;
+import com.github.slfotg.chess.evaluate.EvaluationPipeline;
+import com.github.slfotg.chess.evaluate.NnueEvaluationFunction;
+import com.github.slfotg.chess.search.ParallelSearch;
+import com.github.slfotg.chess.search.SearchLimits;
+import com.github.slfotg.chess.search.SearchResult;
+import com.github.slfotg.chess.search.TranspositionTable;
+import com.github.slfotg.chess.writer.BoardWriter;
+
+public class EngineChessGame {
+
+    public static void main(String... args) throws IOException {
+        long millisPerMove = args.length > 0 ? Long.parseLong(args[0]) : 1000L;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        SearchLimits limits = SearchLimits.time(Duration.ofMillis(millisPerMove));
+        // an optional network weights file replaces the hand written evaluation
+        BoardEvaluationFunction evaluationFunction = args.length > 2 ? NnueEvaluationFunction.load(Paths.get(args[2]))
+                : EvaluationPipeline.standard();
+        BoardWriter writer = new BoardWriter();
+        try (ParallelSearch search = new ParallelSearch(evaluationFunction, threads,
+                new TranspositionTable())) {
+            ChessGame game;
+            for (game = ChessGame.newGame(); game.getResult().isEmpty(); game = game.applyMove(
+                    printResult(search.search(game, limits)).getBestMove())) {
+                writer.writeBoard(game.getBoard());
+            }
+            writer.writeBoard(game.getBoard());
+            System.out.println(game.getResult().get());
+        }
+    }
+
+    private static SearchResult printResult(SearchResult result) {
+        System.out.println(String.format("%s (depth %d, score %d, %d nodes, %.1f%% first move cutoffs)",
+                result.getBestMove(), result.getDepth(), result.getScore(), result.getNodes(),
+                100 * result.getFirstMoveCutoffRate()));
+        return result;
+    }
+}
@@ -1,98 +1,256 @@
 package com.github.slfotg.chess;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import com.github.slfotg.chess.enums.CastlingRights;
 import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
 import com.github.slfotg.chess.enums.Position;
 import com.github.slfotg.chess.enums.Result;
 import com.github.slfotg.chess.move.ChessMove;
 import com.github.slfotg.chess.move.ChessMoveGenerator;
-import com.github.slfotg.chess.util.PositionInverter;
+import com.github.slfotg.chess.move.EncodedChessMove;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.util.Zobrist;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Builder;
-import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
 
-@AllArgsConstructor
-@Builder
+/**
+ * Immutable state of a game. The board and en passant position are never
+ * inverted for the side to move: the board holds White's pieces as the current
+ * pieces and moves of either color use real board positions.
+ *
+ * The checkers, the squares attacked by the opponent, the legal moves and the
+ * result are computed on first use and then kept, so the move generator,
+ * {@link #isInCheck()}, {@link #getPossibleMoves()} and {@link #getResult()}
+ * share them.
+ */
 @Getter
-@EqualsAndHashCode
-public final class GameState {
+public final class GameState implements BitboardPosition {
 
-    private static final PositionInverter POSITION_INVERTER = new PositionInverter();
-    private static final ChessMoveGenerator MOVE_GENERATOR = new ChessMoveGenerator(POSITION_INVERTER);
+    private static final ChessMoveGenerator MOVE_GENERATOR = new ChessMoveGenerator();
+    private static final Piece[] PIECES = Piece.values();
+    // neither bitboard can have every square set
+    private static final long UNKNOWN = -1L;
 
-    @NonNull
     private final Color activeColor;
     private final Position enPassant;
-    @EqualsAndHashCode.Exclude
     private final int halfMoveClock;
-    @EqualsAndHashCode.Exclude
     private final int fullMoveNumber;
-    @NonNull
     private final Board board;
-    @NonNull
     private final CastlingRights currentPlayerRights;
-    @NonNull
     private final CastlingRights opponentRights;
+    // hash of everything but the move clocks, see Zobrist
+    private final long zobristKey;
 
-    private List<ChessMove> getPossibleMovesInternal() {
-        return MOVE_GENERATOR.getPossibleMoves(board, currentPlayerRights, enPassant);
+    // computed lazily; racing threads compute the same value
+    @Getter(AccessLevel.NONE)
+    private volatile long checkers = UNKNOWN;
+    @Getter(AccessLevel.NONE)
+    private volatile int[] legalMoves;
+    @Getter(AccessLevel.NONE)
+    private volatile List<ChessMove> possibleMoves;
+    @Getter(AccessLevel.NONE)
+    private volatile Optional<Result> result;
+
+    @Builder
+    public GameState(@NonNull Color activeColor, Position enPassant, int halfMoveClock, int fullMoveNumber,
+            @NonNull Board board, @NonNull CastlingRights currentPlayerRights, @NonNull CastlingRights opponentRights) {
+        this(activeColor, enPassant, halfMoveClock, fullMoveNumber, board, currentPlayerRights, opponentRights,
+                computeZobristKey(activeColor, enPassant, board, currentPlayerRights, opponentRights));
     }
 
-    public List<ChessMove> getPossibleMoves() {
-        List<ChessMove> moves = getPossibleMovesInternal();
+    private GameState(Color activeColor, Position enPassant, int halfMoveClock, int fullMoveNumber, Board board,
+            CastlingRights currentPlayerRights, CastlingRights opponentRights, long zobristKey) {
+        this.activeColor = activeColor;
+        this.enPassant = enPassant;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveNumber = fullMoveNumber;
+        this.board = board;
+        this.currentPlayerRights = currentPlayerRights;
+        this.opponentRights = opponentRights;
+        this.zobristKey = zobristKey;
+    }
+
+    private static long computeZobristKey(Color activeColor, Position enPassant, Board board,
+            CastlingRights currentPlayerRights, CastlingRights opponentRights) {
+        long key = 0L;
+        for (Piece piece : PIECES) {
+            for (long bits = board.getCurrentBitboard(piece); bits != 0; bits &= bits - 1) {
+                key ^= Zobrist.piece(WHITE * 6 + piece.ordinal(), Long.numberOfTrailingZeros(bits));
+            }
+            for (long bits = board.getOpponentBitboard(piece); bits != 0; bits &= bits - 1) {
+                key ^= Zobrist.piece(BLACK * 6 + piece.ordinal(), Long.numberOfTrailingZeros(bits));
+            }
+        }
+        key ^= Zobrist.castling(castlingBits(activeColor, currentPlayerRights, opponentRights));
+        if (enPassant != null) {
+            key ^= Zobrist.enPassant(enPassant.getIndex());
+        }
         if (activeColor == Color.BLACK) {
-            return moves.stream().map(POSITION_INVERTER::invertChessMove).collect(Collectors.toList());
+            key ^= Zobrist.blackToMove();
         }
-        return moves;
+        return key;
     }
 
-    public GameState applyMove(ChessMove chessMove) {
+    private static int castlingBits(Color activeColor, CastlingRights currentPlayerRights,
+            CastlingRights opponentRights) {
+        CastlingRights whiteRights = activeColor == Color.WHITE ? currentPlayerRights : opponentRights;
+        CastlingRights blackRights = activeColor == Color.WHITE ? opponentRights : currentPlayerRights;
         // @formatter:off
-        return applyMoveInternal(
-                activeColor == Color.WHITE
-                ? chessMove
-                : POSITION_INVERTER.invertChessMove(chessMove));
+        return SearchBoard.toCastlingBits(whiteRights, WHITE_KING_SIDE, WHITE_QUEEN_SIDE)
+                | SearchBoard.toCastlingBits(blackRights, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
         // @formatter:on
     }
 
-    private GameState applyMoveInternal(ChessMove chessMove) {
+    /**
+     * Returns the legal moves of the current player
+     *
+     * @return an unmodifiable list
+     */
+    public List<ChessMove> getPossibleMoves() {
+        List<ChessMove> possibleMoves = this.possibleMoves;
+        if (possibleMoves == null) {
+            int[] moves = getLegalMoves();
+            List<ChessMove> chessMoves = new ArrayList<>(moves.length);
+            for (int move : moves) {
+                chessMoves.add(new EncodedChessMove(move, activeColor));
+            }
+            possibleMoves = Collections.unmodifiableList(chessMoves);
+            this.possibleMoves = possibleMoves;
+        }
+        return possibleMoves;
+    }
+
+    /**
+     * Returns the legal moves of the current player encoded with {@link Move}
+     *
+     * @return a copy of the moves
+     */
+    public int[] getLegalMoves() {
+        return legalMoves().clone();
+    }
+
+    private int[] legalMoves() {
+        int[] legalMoves = this.legalMoves;
+        if (legalMoves == null) {
+            MoveList moves = new MoveList();
+            MOVE_GENERATOR.generateLegalMoves(this, moves);
+            legalMoves = moves.toArray();
+            this.legalMoves = legalMoves;
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Returns true if the current player has a legal move. Unless the moves
+     * were already generated this stops at the first legal move found.
+     *
+     * @return
+     */
+    public boolean hasAnyLegalMove() {
+        int[] legalMoves = this.legalMoves;
+        return legalMoves == null ? MOVE_GENERATOR.hasLegalMove(this) : legalMoves.length > 0;
+    }
+
+    public GameState applyMove(ChessMove chessMove) {
+        return applyMove(Move.encode(chessMove, board.getOccupancy()));
+    }
+
+    /**
+     * Apply a legal move of the current player encoded with {@link Move}
+     *
+     * @param move the encoded move
+     * @return the next state
+     */
+    public GameState applyMove(int move) {
+        EncodedChessMove chessMove = new EncodedChessMove(move, activeColor);
+        Position nextEnPassant = chessMove.enPassantPosition().orElse(null);
+        CastlingRights nextCurrentPlayerRights = chessMove.updateOpponentCastlingRights(opponentRights);
+        CastlingRights nextOpponentRights = chessMove.updateCastlingRights(currentPlayerRights);
         // @formatter:off
-        return builder()
-            .activeColor(activeColor == Color.BLACK ? Color.WHITE : Color.BLACK)
-            .enPassant(chessMove.enPassantPosition().orElse(null))
-            .halfMoveClock(chessMove.isPawnMove() || chessMove.isCapture(board) ? 0 : halfMoveClock + 1)
-            .fullMoveNumber(activeColor == Color.BLACK ? fullMoveNumber + 1 : fullMoveNumber)
-            .board(POSITION_INVERTER.invertBoard(chessMove.applyMove(board)))
-            .currentPlayerRights(opponentRights)
-            .opponentRights(chessMove.updateCastlingRights(currentPlayerRights))
-            .build();
+        return new GameState(
+                activeColor == Color.BLACK ? Color.WHITE : Color.BLACK,
+                nextEnPassant,
+                chessMove.isPawnMove() || Move.isCapture(move) ? 0 : halfMoveClock + 1,
+                activeColor == Color.BLACK ? fullMoveNumber + 1 : fullMoveNumber,
+                chessMove.applyMove(board),
+                nextCurrentPlayerRights,
+                nextOpponentRights,
+                nextZobristKey(move, nextEnPassant, nextCurrentPlayerRights, nextOpponentRights));
         // @formatter:on
     }
 
-    public Board getBoard() {
-        return activeColor == Color.WHITE ? board : POSITION_INVERTER.invertBoard(board);
+    private long nextZobristKey(int move, Position nextEnPassant, CastlingRights nextCurrentPlayerRights,
+            CastlingRights nextOpponentRights) {
+        int current = activeColor.ordinal() * 6;
+        int opponent = 6 - current;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long key = zobristKey ^ Zobrist.blackToMove();
+        if (Move.isCastle(move)) {
+            boolean kingSide = to > from;
+            int rookFrom = kingSide ? to + 1 : to - 2;
+            int rookTo = kingSide ? to - 1 : to + 1;
+            key ^= Zobrist.piece(current + Piece.KING.ordinal(), from);
+            key ^= Zobrist.piece(current + Piece.KING.ordinal(), to);
+            key ^= Zobrist.piece(current + Piece.ROOK.ordinal(), rookFrom);
+            key ^= Zobrist.piece(current + Piece.ROOK.ordinal(), rookTo);
+        } else {
+            int piece = Move.pieceIndex(move);
+            key ^= Zobrist.piece(current + piece, from);
+            key ^= Zobrist.piece(current + (Move.isPromotion(move) ? Move.promotionIndex(move) : piece), to);
+            if (Move.isEnPassant(move)) {
+                int captured = activeColor == Color.WHITE ? to - 8 : to + 8;
+                key ^= Zobrist.piece(opponent + Piece.PAWN.ordinal(), captured);
+            } else if (Move.isCapture(move)) {
+                Piece captured = board.pieceAt(Position.fromIndex(to)).get();
+                key ^= Zobrist.piece(opponent + captured.ordinal(), to);
+            }
+        }
+        key ^= Zobrist.castling(castlingBits(activeColor, currentPlayerRights, opponentRights));
+        Color nextColor = activeColor == Color.WHITE ? Color.BLACK : Color.WHITE;
+        key ^= Zobrist.castling(castlingBits(nextColor, nextCurrentPlayerRights, nextOpponentRights));
+        if (enPassant != null) {
+            key ^= Zobrist.enPassant(enPassant.getIndex());
+        }
+        if (nextEnPassant != null) {
+            key ^= Zobrist.enPassant(nextEnPassant.getIndex());
+        }
+        return key;
     }
 
     public List<GameState> nextPossibleStates() {
-        // @formatter:off
-        return getPossibleMovesInternal().stream()
-                .map(this::applyMoveInternal)
-                .collect(Collectors.toList());
-        // @formatter:on
+        int[] moves = legalMoves();
+        List<GameState> states = new ArrayList<>(moves.length);
+        for (int move : moves) {
+            states.add(applyMove(move));
+        }
+        return states;
     }
 
     public Optional<Result> getResult() {
+        Optional<Result> result = this.result;
+        if (result == null) {
+            result = computeResult();
+            this.result = result;
+        }
+        return result;
+    }
+
+    private Optional<Result> computeResult() {
         if (halfMoveClock >= 50) {
             return Optional.of(Result.HALF_MOVE_CLOCK_DRAW);
         }
-        if (getPossibleMovesInternal().isEmpty()) {
+        if (!hasAnyLegalMove()) {
             if (isInCheck()) {
                 return Optional.of(activeColor == Color.WHITE ? Result.BLACK_WINS : Result.WHITE_WINS);
             }
@@ -101,7 +259,68 @@ public final class GameState {
         return Optional.empty();
     }
 
-    public boolean isInCheck() {
-        return MOVE_GENERATOR.getOpponentAttacks(board).contains(board.getKingPosition());
+    @Override
+    public long getCheckers() {
+        long checkers = this.checkers;
+        if (checkers == UNKNOWN) {
+            checkers = BitboardPosition.super.getCheckers();
+            this.checkers = checkers;
+        }
+        return checkers;
+    }
+
+    @Override
+    public int getSideToMoveIndex() {
+        return activeColor.ordinal();
+    }
+
+    @Override
+    public long getBitboard(int color, int piece) {
+        return color == WHITE ? board.getCurrentBitboard(PIECES[piece]) : board.getOpponentBitboard(PIECES[piece]);
+    }
+
+    @Override
+    public long getOccupancy(int color) {
+        return color == WHITE ? board.getCurrentOccupancy() : board.getOpponentOccupancy();
+    }
+
+    @Override
+    public long getOccupancy() {
+        return board.getOccupancy();
+    }
+
+    @Override
+    public int getCastlingRights() {
+        return castlingBits(activeColor, currentPlayerRights, opponentRights);
+    }
+
+    @Override
+    public int getEnPassantSquare() {
+        return enPassant == null ? NO_SQUARE : enPassant.getIndex();
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(zobristKey);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof GameState)) {
+            return false;
+        }
+        GameState other = (GameState) o;
+        // the key differs for almost every pair of distinct positions so compare it first
+        // @formatter:off
+        return zobristKey == other.zobristKey
+                && activeColor == other.activeColor
+                && Objects.equals(enPassant, other.enPassant)
+                && currentPlayerRights == other.currentPlayerRights
+                && opponentRights == other.opponentRights
+                && board.equals(other.board);
+        // @formatter:on
     }
 }
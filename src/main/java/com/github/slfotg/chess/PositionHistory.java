@@ -0,0 +1,86 @@
+package com.github.slfotg.chess;
+
+/**
+ * Immutable chain of the Zobrist keys of the positions of a game, newest first.
+ * Games continuing from the same position share the chain, so adding a
+ * position costs one node. The chain ends at the last capture or pawn move,
+ * since no position before it can occur again.
+ */
+final class PositionHistory {
+
+    private final long key;
+    // null after a capture or pawn move
+    private final PositionHistory previous;
+    // the number of times this position occurred since the chain started
+    private final int repetitions;
+    // whether any position of the game occurred three times
+    private final boolean threefold;
+
+    private PositionHistory(long key, PositionHistory previous, int repetitions, boolean threefold) {
+        this.key = key;
+        this.previous = previous;
+        this.repetitions = repetitions;
+        this.threefold = threefold || repetitions >= 3;
+    }
+
+    static PositionHistory start(GameState state) {
+        return new PositionHistory(state.getZobristKey(), null, 1, false);
+    }
+
+    /**
+     * Returns the history after the given position is reached from the newest
+     * one
+     *
+     * @param state
+     * @return
+     */
+    PositionHistory next(GameState state) {
+        long nextKey = state.getZobristKey();
+        PositionHistory reversible = state.getHalfMoveClock() == 0 ? null : this;
+        // the key includes the player to move, so only every second position can
+        // be the same, and counting stops at the last occurrence
+        int count = 1;
+        PositionHistory start = reversible == null ? null : reversible.previous;
+        for (PositionHistory history = start; history != null; history = twoPliesBack(history)) {
+            if (history.key == nextKey) {
+                count = history.repetitions + 1;
+                break;
+            }
+        }
+        return new PositionHistory(nextKey, reversible, count, threefold);
+    }
+
+    /**
+     * Returns the position two plies before the given one or null if the chain
+     * ends before it
+     */
+    private static PositionHistory twoPliesBack(PositionHistory history) {
+        return history.previous == null ? null : history.previous.previous;
+    }
+
+    int getRepetitions() {
+        return repetitions;
+    }
+
+    /**
+     * Returns the keys of the positions before the newest one back to the last
+     * capture or pawn move, oldest first
+     *
+     * @return
+     */
+    long[] previousKeys() {
+        int length = 0;
+        for (PositionHistory history = previous; history != null; history = history.previous) {
+            length += 1;
+        }
+        long[] keys = new long[length];
+        for (PositionHistory history = previous; history != null; history = history.previous) {
+            keys[--length] = history.key;
+        }
+        return keys;
+    }
+
+    boolean isThreefold() {
+        return threefold;
+    }
+}
@@ -0,0 +1,531 @@
+package com.github.slfotg.chess;
+
+import java.util.Arrays;
+
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+import com.github.slfotg.chess.enums.Side;
+import com.github.slfotg.chess.evaluate.PieceSquareTables;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.util.Zobrist;
+
+/**
+ * Mutable position used by search and perft. Moves (encoded with {@link Move})
+ * are applied in place with {@link #makeMove(int)} and taken back with
+ * {@link #unmakeMove()}, which restores the state saved on an undo stack, so
+ * walking a game tree does not create any garbage.
+ *
+ * Bitboards are indexed by [color * 6 + piece] with White's pieces first.
+ *
+ * Like the Zobrist key and the pawn key, the material and piece-square scores
+ * of {@link PieceSquareTables} and the game phase are updated with every piece
+ * that is added or removed, so evaluating them does not look at the pieces.
+ */
+public final class SearchBoard implements BitboardPosition {
+
+    public static final int EMPTY = -1;
+
+    private static final int PIECE_COUNT = 6;
+    private static final int PAWN = Piece.PAWN.ordinal();
+    private static final Piece[] PIECES = Piece.values();
+    private static final Color[] COLORS = Color.values();
+
+    // castling rights that survive a move touching each square
+    private static final int[] CASTLING_MASKS = new int[64];
+    static {
+        Arrays.fill(CASTLING_MASKS, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[Position.E1.getIndex()] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        CASTLING_MASKS[Position.H1.getIndex()] &= ~WHITE_KING_SIDE;
+        CASTLING_MASKS[Position.A1.getIndex()] &= ~WHITE_QUEEN_SIDE;
+        CASTLING_MASKS[Position.E8.getIndex()] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        CASTLING_MASKS[Position.H8.getIndex()] &= ~BLACK_KING_SIDE;
+        CASTLING_MASKS[Position.A8.getIndex()] &= ~BLACK_QUEEN_SIDE;
+    }
+
+    private static final int INITIAL_CAPACITY = 256;
+    // marks a cached bitboard that has not been computed yet
+    private static final long UNKNOWN = -1L;
+
+    private final long[] bitboards = new long[PIECE_COUNT * 2];
+    private final long[] occupancy = new long[2];
+    // color * 6 + piece for every square or EMPTY
+    private final int[] squares = new int[64];
+
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassant;
+    private int halfMoveClock;
+    private int fullMoveNumber;
+    private long zobristKey;
+    private long pawnKey;
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+
+    // undo stack
+    private int ply;
+    private int[] undoMoves = new int[INITIAL_CAPACITY];
+    private int[] undoCaptured = new int[INITIAL_CAPACITY];
+    private int[] undoCastlingRights = new int[INITIAL_CAPACITY];
+    private int[] undoEnPassant = new int[INITIAL_CAPACITY];
+    private int[] undoHalfMoveClock = new int[INITIAL_CAPACITY];
+    private long[] undoZobristKey = new long[INITIAL_CAPACITY];
+    // checkers of the position at each ply, kept valid by make/unmake so a
+    // position computes them at most once
+    private long[] checkers = new long[INITIAL_CAPACITY + 1];
+    // keys of the game before the loaded position, oldest first
+    private long[] previousKeys = new long[0];
+
+    public SearchBoard(GameState gameState) {
+        load(gameState);
+    }
+
+    public SearchBoard(ChessGame game) {
+        load(game);
+    }
+
+    /**
+     * Load the current position of the game and remember the positions since
+     * the last capture or pawn move for {@link #isRepetition(int)}
+     *
+     * @param game
+     */
+    public void load(ChessGame game) {
+        load(game.getGameState());
+        previousKeys = game.getHistory().previousKeys();
+    }
+
+    /**
+     * Replace the contents of this board with the given game state and clear the
+     * undo stack
+     *
+     * @param gameState
+     */
+    public void load(GameState gameState) {
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(occupancy, 0L);
+        Arrays.fill(squares, EMPTY);
+        zobristKey = 0L;
+        pawnKey = 0L;
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        Board board = gameState.getBoard();
+        for (Piece piece : PIECES) {
+            addPieces(WHITE, piece.ordinal(), board.getCurrentBitboard(piece));
+            addPieces(BLACK, piece.ordinal(), board.getOpponentBitboard(piece));
+        }
+        boolean whiteToMove = gameState.getActiveColor() == Color.WHITE;
+        sideToMove = whiteToMove ? WHITE : BLACK;
+        CastlingRights whiteRights = whiteToMove ? gameState.getCurrentPlayerRights() : gameState.getOpponentRights();
+        CastlingRights blackRights = whiteToMove ? gameState.getOpponentRights() : gameState.getCurrentPlayerRights();
+        castlingRights = toCastlingBits(whiteRights, WHITE_KING_SIDE, WHITE_QUEEN_SIDE)
+                | toCastlingBits(blackRights, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
+        enPassant = gameState.getEnPassantSquare();
+        halfMoveClock = gameState.getHalfMoveClock();
+        fullMoveNumber = gameState.getFullMoveNumber();
+        previousKeys = new long[0];
+        zobristKey ^= Zobrist.castling(castlingRights);
+        if (enPassant != NO_SQUARE) {
+            zobristKey ^= Zobrist.enPassant(enPassant);
+        }
+        if (sideToMove == BLACK) {
+            zobristKey ^= Zobrist.blackToMove();
+        }
+        ply = 0;
+        checkers[0] = UNKNOWN;
+    }
+
+    private void addPieces(int color, int piece, long pieces) {
+        for (long bits = pieces; bits != 0; bits &= bits - 1) {
+            addPiece(color * PIECE_COUNT + piece, Long.numberOfTrailingZeros(bits));
+        }
+    }
+
+    static int toCastlingBits(CastlingRights rights, int kingSide, int queenSide) {
+        return (rights.hasRights(Side.KING) ? kingSide : 0) | (rights.hasRights(Side.QUEEN) ? queenSide : 0);
+    }
+
+    private static CastlingRights toCastlingRights(int bits, int kingSide, int queenSide) {
+        boolean king = (bits & kingSide) != 0;
+        boolean queen = (bits & queenSide) != 0;
+        if (king && queen) {
+            return CastlingRights.EITHER_SIDE;
+        }
+        if (king) {
+            return CastlingRights.KING_SIDE;
+        }
+        return queen ? CastlingRights.QUEEN_SIDE : CastlingRights.NONE;
+    }
+
+    /**
+     * Create an immutable game state for the current position
+     *
+     * @return
+     */
+    public GameState toGameState() {
+        long[] white = Arrays.copyOfRange(bitboards, 0, PIECE_COUNT);
+        long[] black = Arrays.copyOfRange(bitboards, PIECE_COUNT, PIECE_COUNT * 2);
+        boolean whiteToMove = sideToMove == WHITE;
+        CastlingRights whiteRights = toCastlingRights(castlingRights, WHITE_KING_SIDE, WHITE_QUEEN_SIDE);
+        CastlingRights blackRights = toCastlingRights(castlingRights, BLACK_KING_SIDE, BLACK_QUEEN_SIDE);
+        // @formatter:off
+        return GameState.builder()
+                .activeColor(getSideToMove())
+                .enPassant(enPassant == NO_SQUARE ? null : Position.fromIndex(enPassant))
+                .halfMoveClock(halfMoveClock)
+                .fullMoveNumber(fullMoveNumber)
+                .board(new Board(white, black))
+                .currentPlayerRights(whiteToMove ? whiteRights : blackRights)
+                .opponentRights(whiteToMove ? blackRights : whiteRights)
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Encode a move of the current player produced by {@link GameState}
+     *
+     * @param chessMove a move as returned by {@link GameState#getPossibleMoves()}
+     * @return the encoded move
+     */
+    public int encode(ChessMove chessMove) {
+        return Move.encode(chessMove, getOccupancy());
+    }
+
+    private void addPiece(int coloredPiece, int square) {
+        long mask = 1L << square;
+        bitboards[coloredPiece] |= mask;
+        occupancy[coloredPiece / PIECE_COUNT] |= mask;
+        squares[square] = coloredPiece;
+        zobristKey ^= Zobrist.piece(coloredPiece, square);
+        if (coloredPiece % PIECE_COUNT == PAWN) {
+            pawnKey ^= Zobrist.piece(coloredPiece, square);
+        }
+        middlegameScore += PieceSquareTables.middlegame(coloredPiece, square);
+        endgameScore += PieceSquareTables.endgame(coloredPiece, square);
+        phase += PieceSquareTables.phase(coloredPiece);
+    }
+
+    private void removePiece(int square) {
+        int coloredPiece = squares[square];
+        long mask = ~(1L << square);
+        bitboards[coloredPiece] &= mask;
+        occupancy[coloredPiece / PIECE_COUNT] &= mask;
+        squares[square] = EMPTY;
+        zobristKey ^= Zobrist.piece(coloredPiece, square);
+        if (coloredPiece % PIECE_COUNT == PAWN) {
+            pawnKey ^= Zobrist.piece(coloredPiece, square);
+        }
+        middlegameScore -= PieceSquareTables.middlegame(coloredPiece, square);
+        endgameScore -= PieceSquareTables.endgame(coloredPiece, square);
+        phase -= PieceSquareTables.phase(coloredPiece);
+    }
+
+    private void movePiece(int from, int to) {
+        int coloredPiece = squares[from];
+        removePiece(from);
+        addPiece(coloredPiece, to);
+    }
+
+    private void ensureCapacity() {
+        if (ply == undoMoves.length) {
+            int capacity = undoMoves.length * 2;
+            undoMoves = Arrays.copyOf(undoMoves, capacity);
+            undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+            undoCastlingRights = Arrays.copyOf(undoCastlingRights, capacity);
+            undoEnPassant = Arrays.copyOf(undoEnPassant, capacity);
+            undoHalfMoveClock = Arrays.copyOf(undoHalfMoveClock, capacity);
+            undoZobristKey = Arrays.copyOf(undoZobristKey, capacity);
+            checkers = Arrays.copyOf(checkers, capacity + 1);
+        }
+    }
+
+    private static int castlingRookFrom(int kingTo) {
+        // king side castling ends on the G file, queen side on the C file
+        return (kingTo & 7) == 6 ? kingTo + 1 : kingTo - 2;
+    }
+
+    private static int castlingRookTo(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo - 1 : kingTo + 1;
+    }
+
+    /**
+     * Apply a move of the side to move. The move is assumed to be legal.
+     *
+     * @param move an encoded move
+     */
+    public void makeMove(int move) {
+        ensureCapacity();
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int us = sideToMove;
+
+        undoMoves[ply] = move;
+        undoCastlingRights[ply] = castlingRights;
+        undoEnPassant[ply] = enPassant;
+        undoHalfMoveClock[ply] = halfMoveClock;
+        undoZobristKey[ply] = zobristKey;
+
+        int captured = EMPTY;
+        if (Move.isEnPassant(move)) {
+            int capturedSquare = us == WHITE ? to - 8 : to + 8;
+            captured = squares[capturedSquare];
+            removePiece(capturedSquare);
+        } else if (squares[to] != EMPTY) {
+            captured = squares[to];
+            removePiece(to);
+        }
+        undoCaptured[ply] = captured;
+
+        if (Move.isPromotion(move)) {
+            removePiece(from);
+            addPiece(us * PIECE_COUNT + Move.promotionIndex(move), to);
+        } else {
+            movePiece(from, to);
+        }
+        if (Move.isCastle(move)) {
+            movePiece(castlingRookFrom(to), castlingRookTo(to));
+        }
+
+        zobristKey ^= Zobrist.castling(castlingRights);
+        castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        zobristKey ^= Zobrist.castling(castlingRights);
+        if (enPassant != NO_SQUARE) {
+            zobristKey ^= Zobrist.enPassant(enPassant);
+        }
+        enPassant = Move.isDoublePush(move) ? (from + to) / 2 : NO_SQUARE;
+        if (enPassant != NO_SQUARE) {
+            zobristKey ^= Zobrist.enPassant(enPassant);
+        }
+        zobristKey ^= Zobrist.blackToMove();
+        halfMoveClock = Move.pieceIndex(move) == PAWN || captured != EMPTY ? 0 : halfMoveClock + 1;
+        if (us == BLACK) {
+            fullMoveNumber += 1;
+        }
+        sideToMove = us ^ 1;
+        ply += 1;
+        checkers[ply] = UNKNOWN;
+    }
+
+    /**
+     * Take back the last move applied with {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        ply -= 1;
+        int move = undoMoves[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int us = sideToMove ^ 1;
+
+        if (Move.isCastle(move)) {
+            movePiece(castlingRookTo(to), castlingRookFrom(to));
+        }
+        if (Move.isPromotion(move)) {
+            removePiece(to);
+            addPiece(us * PIECE_COUNT + PAWN, from);
+        } else {
+            movePiece(to, from);
+        }
+        int captured = undoCaptured[ply];
+        if (captured != EMPTY) {
+            int capturedSquare = Move.isEnPassant(move) ? (us == WHITE ? to - 8 : to + 8) : to;
+            addPiece(captured, capturedSquare);
+        }
+
+        castlingRights = undoCastlingRights[ply];
+        enPassant = undoEnPassant[ply];
+        halfMoveClock = undoHalfMoveClock[ply];
+        // the piece moves above toggled the key as well, restore it as a whole
+        zobristKey = undoZobristKey[ply];
+        if (us == BLACK) {
+            fullMoveNumber -= 1;
+        }
+        sideToMove = us;
+    }
+
+    public Color getSideToMove() {
+        return COLORS[sideToMove];
+    }
+
+    @Override
+    public int getSideToMoveIndex() {
+        return sideToMove;
+    }
+
+    @Override
+    public long getBitboard(int color, Piece piece) {
+        return bitboards[color * PIECE_COUNT + piece.ordinal()];
+    }
+
+    @Override
+    public long getBitboard(int color, int piece) {
+        return bitboards[color * PIECE_COUNT + piece];
+    }
+
+    @Override
+    public long getOccupancy(int color) {
+        return occupancy[color];
+    }
+
+    @Override
+    public long getOccupancy() {
+        return occupancy[WHITE] | occupancy[BLACK];
+    }
+
+    /**
+     * Returns the piece on a square encoded as color * 6 + piece ordinal or EMPTY
+     *
+     * @param square
+     * @return
+     */
+    public int getSquare(int square) {
+        return squares[square];
+    }
+
+    @Override
+    public int getKingSquare(int color) {
+        return Long.numberOfTrailingZeros(bitboards[color * PIECE_COUNT + Piece.KING.ordinal()]);
+    }
+
+    /**
+     * Returns the Zobrist key of the current position, equal to
+     * {@link GameState#getZobristKey()} for the same position
+     *
+     * @return
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    @Override
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Returns the sum of the middlegame values of {@link PieceSquareTables} of
+     * all pieces, from White's side
+     *
+     * @return
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * Returns the sum of the endgame values of {@link PieceSquareTables} of all
+     * pieces, from White's side
+     *
+     * @return
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * Returns the game phase of the pieces on the board (see
+     * {@link PieceSquareTables#MAX_PHASE})
+     *
+     * @return
+     */
+    public int getPhase() {
+        return phase;
+    }
+
+    @Override
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public int getEnPassant() {
+        return enPassant;
+    }
+
+    @Override
+    public int getEnPassantSquare() {
+        return enPassant;
+    }
+
+    public int getHalfMoveClock() {
+        return halfMoveClock;
+    }
+
+    public int getFullMoveNumber() {
+        return fullMoveNumber;
+    }
+
+    /**
+     * Returns the number of moves on the undo stack
+     *
+     * @return
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    @Override
+    public long getCheckers() {
+        if (checkers[ply] == UNKNOWN) {
+            checkers[ply] = BitboardPosition.super.getCheckers();
+        }
+        return checkers[ply];
+    }
+
+    /**
+     * Returns true if the current position occurred at least count times, in
+     * the moves made on this board or in the game it was loaded from. Only every
+     * second position back to the last capture or pawn move is compared.
+     *
+     * @param count
+     * @return
+     */
+    public boolean isRepetition(int count) {
+        int occurrences = 1;
+        int oldest = Math.max(ply - halfMoveClock, -previousKeys.length);
+        for (int i = ply - 2; i >= oldest && occurrences < count; i -= 2) {
+            long key = i >= 0 ? undoZobristKey[i] : previousKeys[previousKeys.length + i];
+            if (key == zobristKey) {
+                occurrences += 1;
+            }
+        }
+        return occurrences >= count;
+    }
+
+    public int getLastMove() {
+        return ply == 0 ? Move.NONE : undoMoves[ply - 1];
+    }
+
+    /**
+     * Returns the move made at an earlier ply of the undo stack
+     *
+     * @param ply at least 0 and less than {@link #getPly()}
+     * @return
+     */
+    public int getMove(int ply) {
+        return undoMoves[ply];
+    }
+
+    /**
+     * Returns the piece captured by the move made at an earlier ply, encoded as
+     * color * 6 + piece ordinal, or EMPTY
+     *
+     * @param ply at least 0 and less than {@link #getPly()}
+     * @return
+     */
+    public int getCapturedPiece(int ply) {
+        return undoCaptured[ply];
+    }
+
+    /**
+     * Returns the Zobrist key of the position at a ply of the undo stack
+     *
+     * @param ply at least 0 and at most {@link #getPly()}
+     * @return
+     */
+    public long getZobristKey(int ply) {
+        return ply == this.ply ? zobristKey : undoZobristKey[ply];
+    }
+}
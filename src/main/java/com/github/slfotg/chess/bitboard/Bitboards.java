@@ -0,0 +1,117 @@
+package com.github.slfotg.chess.bitboard;
+
+/**
+ * Bitboard constants, precomputed attack sets for the non-sliding pieces and
+ * the lines between pairs of squares.
+ * Square indexes follow {@link com.github.slfotg.chess.enums.Position#getIndex()}
+ * (A1 = 0, H8 = 63).
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_2 = RANK_1 << 8;
+    public static final long RANK_3 = RANK_1 << 16;
+    public static final long RANK_6 = RANK_1 << 40;
+    public static final long RANK_7 = RANK_1 << 48;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // [color][square]
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // [square][square], empty unless both squares share a rank, file or diagonal
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightSteps = { { 1, 2 }, { 2, 1 }, { 2, -1 }, { 1, -2 }, { -1, -2 }, { -2, -1 }, { -2, 1 },
+                { -1, 2 } };
+        int[][] kingSteps = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 }, { 1, -1 } };
+        for (int square = 0; square < 64; square += 1) {
+            KNIGHT_ATTACKS[square] = steps(square, knightSteps);
+            KING_ATTACKS[square] = steps(square, kingSteps);
+            PAWN_ATTACKS[0][square] = steps(square, new int[][] { { -1, 1 }, { 1, 1 } });
+            PAWN_ATTACKS[1][square] = steps(square, new int[][] { { -1, -1 }, { 1, -1 } });
+        }
+        for (int square = 0; square < 64; square += 1) {
+            for (int[] step : kingSteps) {
+                long ray = 0L;
+                for (int file = square % 8 + step[0], rank = square / 8 + step[1]; file >= 0 && file < 8 && rank >= 0
+                        && rank < 8; file += step[0], rank += step[1]) {
+                    int target = rank * 8 + file;
+                    BETWEEN[square][target] = ray;
+                    ray |= 1L << target;
+                }
+                // the full line in this direction and the opposite one
+                long line = ray | (1L << square);
+                for (int file = square % 8 - step[0], rank = square / 8 - step[1]; file >= 0 && file < 8 && rank >= 0
+                        && rank < 8; file -= step[0], rank -= step[1]) {
+                    line |= 1L << (rank * 8 + file);
+                }
+                for (long bits = ray; bits != 0; bits &= bits - 1) {
+                    LINE[square][Long.numberOfTrailingZeros(bits)] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static long steps(int square, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int file = square % 8 + step[0];
+            int rank = square / 8 + step[1];
+            if (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+                attacks |= 1L << (rank * 8 + file);
+            }
+        }
+        return attacks;
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * Get the squares strictly between two squares on the same rank, file or
+     * diagonal
+     *
+     * @param from a square index
+     * @param to   a square index
+     * @return the squares between them or 0 if they are not aligned
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * Get the whole rank, file or diagonal going through two squares
+     *
+     * @param from a square index
+     * @param to   a square index
+     * @return the line (edge to edge) or 0 if they are not aligned
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Get the squares attacked by a pawn
+     *
+     * @param color  the color index of the pawn (0 for White, 1 for Black)
+     * @param square the square index of the pawn
+     * @return the attacked squares
+     */
+    public static long pawnAttacks(int color, int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+}
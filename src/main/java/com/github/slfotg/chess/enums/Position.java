@@ -16,12 +16,31 @@ public enum Position {
     A1(ONE  , A), B1(ONE  , B), C1(ONE  , C), D1(ONE  , D), E1(ONE  , E), F1(ONE  , F), G1(ONE  , G), H1(ONE  , H);
     // @formatter:on
 
+    private static final Position[] BY_INDEX = new Position[64];
+    static {
+        for (Position position : values()) {
+            BY_INDEX[position.index] = position;
+        }
+    }
+
     private final Rank rank;
     private final File file;
+    private final int index;
 
     Position(Rank rank, File file) {
         this.rank = rank;
         this.file = file;
+        this.index = rank.ordinal() * 8 + file.ordinal();
+    }
+
+    /**
+     * Returns the position at the given bitboard square index
+     * 
+     * @param index square index (A1 = 0, B1 = 1, ... H8 = 63)
+     * @return the position at that index
+     */
+    public static Position fromIndex(int index) {
+        return BY_INDEX[index];
     }
 
     public Rank getRank() {
@@ -31,4 +50,23 @@ public enum Position {
     public File getFile() {
         return file;
     }
+
+    /**
+     * Returns the bitboard square index of this position (A1 = 0, B1 = 1, ... H8 =
+     * 63)
+     * 
+     * @return the square index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns a bitboard with only this position set
+     * 
+     * @return the bitboard mask of this position
+     */
+    public long getMask() {
+        return 1L << index;
+    }
 }
@@ -1,8 +1,44 @@
 package com.github.slfotg.chess.evaluate;
 
 import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
 
+/**
+ * Scores a position from White's side: positive values favor White
+ */
 public interface BoardEvaluationFunction {
 
     double evaluate(GameState gameState);
+
+    /**
+     * Evaluate the current position of a search board. Implementations should
+     * override this to avoid creating a GameState for every position searched.
+     * 
+     * @param board
+     * @return
+     */
+    default double evaluate(SearchBoard board) {
+        return evaluate(board.toGameState());
+    }
+
+    /**
+     * Evaluate a game state in whole centipawns
+     * 
+     * @param gameState
+     * @return
+     */
+    default int evaluateCentipawns(GameState gameState) {
+        return (int) Math.round(evaluate(gameState) * 100);
+    }
+
+    /**
+     * Evaluate the current position of a search board in whole centipawns, which
+     * is what the search uses. Integer evaluations should override this.
+     * 
+     * @param board
+     * @return
+     */
+    default int evaluateCentipawns(SearchBoard board) {
+        return (int) Math.round(evaluate(board) * 100);
+    }
 }
@@ -0,0 +1,102 @@
+package com.github.slfotg.chess.evaluate;
+
+/**
+ * The data parallel inner loops of the {@link NnueNetwork}, behind an interface
+ * so a SIMD implementation can replace the scalar one. The {@code vector} Maven
+ * profile builds such an implementation, {@code VectorKernels}, on JDK 16 and
+ * later.
+ *
+ * The kernels are chosen once, when the first network is created: the system
+ * property {@value #PROPERTY} may name a class implementing this interface with
+ * a public no argument constructor. If it is not set, or the class can not be
+ * loaded, as when it needs a JDK module that is not present, the
+ * {@link ScalarKernels} are used.
+ */
+public interface EvaluationKernels {
+
+    String PROPERTY = "com.github.slfotg.chess.kernels";
+
+    /**
+     * Returns the kernels named by the {@value #PROPERTY} system property, or
+     * the scalar kernels
+     *
+     * @return
+     */
+    static EvaluationKernels select() {
+        return select(System.getProperty(PROPERTY));
+    }
+
+    /**
+     * Returns an instance of the named kernel class, or the scalar kernels if the
+     * name is null or the class can not be used
+     *
+     * @param className
+     * @return
+     */
+    static EvaluationKernels select(String className) {
+        if (className == null || className.isEmpty()) {
+            return new ScalarKernels();
+        }
+        try {
+            return Class.forName(className).asSubclass(EvaluationKernels.class).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            return new ScalarKernels();
+        }
+    }
+
+    /**
+     * Returns a short name for the kernels, shown by benchmarks
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * Set dst to src plus the added weight rows minus the removed weight rows.
+     * This is how an accumulator follows a move, with one pass over the values
+     * for the common cases of a quiet move or a capture.
+     *
+     * @param src          the values to start from
+     * @param srcOffset
+     * @param dst          the values to set, which may be the same as src
+     * @param dstOffset
+     * @param weights      the weight rows
+     * @param added        the offsets of the weight rows to add
+     * @param addedCount
+     * @param removed      the offsets of the weight rows to subtract
+     * @param removedCount
+     * @param length       the number of values
+     */
+    void update(short[] src, int srcOffset, short[] dst, int dstOffset, short[] weights, int[] added,
+            int addedCount, int[] removed, int removedCount, int length);
+
+    /**
+     * Clip values to 0 to max and narrow them to bytes
+     *
+     * @param src
+     * @param srcOffset
+     * @param dst
+     * @param dstOffset
+     * @param length
+     * @param max       at most 127
+     */
+    void clip(short[] src, int srcOffset, byte[] dst, int dstOffset, int length, int max);
+
+    /**
+     * Add a dense layer's weighted inputs to its outputs. The weights are
+     * grouped by input, so inputs that are 0, which are most of the clipped
+     * activations, can be skipped.
+     *
+     * Outputs are packed in pairs, one pair per long: output 2k in the low 32
+     * bits and output 2k + 1 in the high 32 bits, each weight as a signed value
+     * so a pair is {@code ((long) high << 32) + low}. Adding packed products
+     * adds both outputs at once, as long as each sum fits in an int.
+     *
+     * @param input       the input values
+     * @param inputLength
+     * @param weights     pairCount packed weights for each input
+     * @param sums        the packed sums to add to
+     * @param pairCount   the number of output pairs
+     */
+    void affine(byte[] input, int inputLength, long[] weights, long[] sums, int pairCount);
+}
@@ -0,0 +1,66 @@
+package com.github.slfotg.chess.evaluate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+
+/**
+ * Evaluation made of independent {@link EvaluationTerm terms} whose scores are
+ * added up. The game phase is computed once per position and handed to every
+ * term, and terms keep their own caches, such as the {@link PawnHashTable} of
+ * the {@link PawnStructureTerm}.
+ */
+public class EvaluationPipeline implements BoardEvaluationFunction {
+
+    private final EvaluationTerm[] terms;
+
+    public EvaluationPipeline(EvaluationTerm... terms) {
+        this.terms = terms.clone();
+    }
+
+    /**
+     * Create a pipeline of material, mobility, king safety and pawn structure
+     *
+     * @return
+     */
+    public static EvaluationPipeline standard() {
+        return new EvaluationPipeline(new MaterialTerm(), new MobilityTerm(), new KingSafetyTerm(),
+                new PawnStructureTerm());
+    }
+
+    public List<EvaluationTerm> getTerms() {
+        return Collections.unmodifiableList(Arrays.asList(terms));
+    }
+
+    @Override
+    public double evaluate(GameState gameState) {
+        return evaluateCentipawns(gameState) / 100.0;
+    }
+
+    @Override
+    public double evaluate(SearchBoard board) {
+        return evaluateCentipawns(board) / 100.0;
+    }
+
+    @Override
+    public int evaluateCentipawns(GameState gameState) {
+        return evaluate(gameState, PieceSquareTables.phase(gameState));
+    }
+
+    @Override
+    public int evaluateCentipawns(SearchBoard board) {
+        return evaluate(board, board.getPhase());
+    }
+
+    private int evaluate(BitboardPosition position, int phase) {
+        int score = 0;
+        for (EvaluationTerm term : terms) {
+            score += term.evaluate(position, phase);
+        }
+        return score;
+    }
+}
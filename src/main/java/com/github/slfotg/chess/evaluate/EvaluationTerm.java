@@ -0,0 +1,21 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.BitboardPosition;
+
+/**
+ * One part of an {@link EvaluationPipeline}, such as material or pawn
+ * structure. Terms may be called by several search threads at once.
+ */
+public interface EvaluationTerm {
+
+    /**
+     * Score one aspect of a position
+     *
+     * @param position the position, a {@link com.github.slfotg.chess.SearchBoard}
+     *                 during search
+     * @param phase    the game phase of the position (see
+     *                 {@link PieceSquareTables#MAX_PHASE}) for tapering
+     * @return centipawns from White's side
+     */
+    int evaluate(BitboardPosition position, int phase);
+}
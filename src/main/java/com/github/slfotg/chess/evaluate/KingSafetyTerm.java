@@ -0,0 +1,49 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.bitboard.Bitboards;
+import com.github.slfotg.chess.enums.Piece;
+
+/**
+ * Rewards the pawns sheltering a king and penalizes enemy pieces attacking the
+ * squares around it. Only counts in the middlegame, fading out as pieces are
+ * traded.
+ */
+public final class KingSafetyTerm implements EvaluationTerm {
+
+    private static final int SHIELD_BONUS = 12;
+    // indexed by piece ordinal
+    private static final int[] ATTACK_WEIGHTS = { 0, 2, 2, 3, 5, 0 };
+    private static final int MAX_ATTACK_PENALTY = 400;
+
+    @Override
+    public int evaluate(BitboardPosition position, int phase) {
+        int score = safety(position, BitboardPosition.WHITE) - safety(position, BitboardPosition.BLACK);
+        return score * Math.min(phase, PieceSquareTables.MAX_PHASE) / PieceSquareTables.MAX_PHASE;
+    }
+
+    private static int safety(BitboardPosition position, int color) {
+        int king = position.getKingSquare(color);
+        long kingBit = 1L << king;
+
+        // the own pawns on the two ranks in front of the king and its
+        // neighboring files
+        long front = color == BitboardPosition.WHITE ? (kingBit << 8) | (kingBit << 16)
+                : (kingBit >>> 8) | (kingBit >>> 16);
+        long shield = front | ((front << 1) & ~Bitboards.FILE_A) | ((front >>> 1) & ~Bitboards.FILE_H);
+        int score = SHIELD_BONUS * Long.bitCount(shield & position.getBitboard(color, Piece.PAWN));
+
+        long zone = Bitboards.kingAttacks(king) | kingBit;
+        long occupied = position.getOccupancy();
+        int them = color ^ 1;
+        int attackWeight = 0;
+        for (int piece = Piece.KNIGHT.ordinal(); piece <= Piece.QUEEN.ordinal(); piece += 1) {
+            for (long pieces = position.getBitboard(them, piece); pieces != 0; pieces &= pieces - 1) {
+                long attacks = MobilityTerm.attacks(piece, Long.numberOfTrailingZeros(pieces), occupied);
+                attackWeight += ATTACK_WEIGHTS[piece] * Long.bitCount(attacks & zone);
+            }
+        }
+        // attacks by several pieces are much more dangerous than by one
+        return score - Math.min(attackWeight * attackWeight, MAX_ATTACK_PENALTY);
+    }
+}
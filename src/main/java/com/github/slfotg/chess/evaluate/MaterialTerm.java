@@ -0,0 +1,33 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.SearchBoard;
+
+/**
+ * Material and piece-square values of {@link PieceSquareTables}, read from the
+ * running sums of a {@link SearchBoard} or summed over the pieces of any other
+ * position
+ */
+public final class MaterialTerm implements EvaluationTerm {
+
+    private static final int PIECE_COUNT = 6;
+
+    @Override
+    public int evaluate(BitboardPosition position, int phase) {
+        if (position instanceof SearchBoard) {
+            SearchBoard board = (SearchBoard) position;
+            return PieceSquareTables.taper(board.getMiddlegameScore(), board.getEndgameScore(), phase);
+        }
+        int middlegame = 0;
+        int endgame = 0;
+        for (int coloredPiece = 0; coloredPiece < 2 * PIECE_COUNT; coloredPiece += 1) {
+            long pieces = position.getBitboard(coloredPiece / PIECE_COUNT, coloredPiece % PIECE_COUNT);
+            for (; pieces != 0; pieces &= pieces - 1) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                middlegame += PieceSquareTables.middlegame(coloredPiece, square);
+                endgame += PieceSquareTables.endgame(coloredPiece, square);
+            }
+        }
+        return PieceSquareTables.taper(middlegame, endgame, phase);
+    }
+}
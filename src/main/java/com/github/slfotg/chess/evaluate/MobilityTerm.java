@@ -0,0 +1,73 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.bitboard.Bitboards;
+import com.github.slfotg.chess.bitboard.MagicBitboards;
+import com.github.slfotg.chess.enums.Piece;
+
+/**
+ * Rewards knights, bishops, rooks and queens for the squares they can move to
+ * that are not guarded by enemy pawns
+ */
+public final class MobilityTerm implements EvaluationTerm {
+
+    // indexed by piece ordinal, pawns and kings are not counted
+    private static final int[] MIDDLEGAME_WEIGHTS = { 0, 4, 5, 2, 1, 0 };
+    private static final int[] ENDGAME_WEIGHTS = { 0, 4, 5, 4, 2, 0 };
+    // the number of squares that scores nothing
+    private static final int[] AVERAGE_MOBILITY = { 0, 4, 7, 7, 14, 0 };
+
+    @Override
+    public int evaluate(BitboardPosition position, int phase) {
+        int middlegame = 0;
+        int endgame = 0;
+        long occupied = position.getOccupancy();
+        for (int color = BitboardPosition.WHITE; color <= BitboardPosition.BLACK; color += 1) {
+            int sign = color == BitboardPosition.WHITE ? 1 : -1;
+            long area = ~position.getOccupancy(color)
+                    & ~pawnAttacks(color ^ 1, position.getBitboard(color ^ 1, Piece.PAWN));
+            for (int piece = Piece.KNIGHT.ordinal(); piece <= Piece.QUEEN.ordinal(); piece += 1) {
+                for (long pieces = position.getBitboard(color, piece); pieces != 0; pieces &= pieces - 1) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    int mobility = Long.bitCount(attacks(piece, square, occupied) & area) - AVERAGE_MOBILITY[piece];
+                    middlegame += sign * MIDDLEGAME_WEIGHTS[piece] * mobility;
+                    endgame += sign * ENDGAME_WEIGHTS[piece] * mobility;
+                }
+            }
+        }
+        return PieceSquareTables.taper(middlegame, endgame, phase);
+    }
+
+    /**
+     * Returns the squares a knight, bishop, rook or queen attacks
+     *
+     * @param piece    the piece ordinal
+     * @param square
+     * @param occupied the pieces blocking sliding pieces
+     * @return
+     */
+    static long attacks(int piece, int square, long occupied) {
+        if (piece == Piece.KNIGHT.ordinal()) {
+            return Bitboards.knightAttacks(square);
+        } else if (piece == Piece.BISHOP.ordinal()) {
+            return MagicBitboards.bishopAttacks(square, occupied);
+        } else if (piece == Piece.ROOK.ordinal()) {
+            return MagicBitboards.rookAttacks(square, occupied);
+        }
+        return MagicBitboards.bishopAttacks(square, occupied) | MagicBitboards.rookAttacks(square, occupied);
+    }
+
+    /**
+     * Returns the squares attacked by a set of pawns
+     *
+     * @param color the color of the pawns
+     * @param pawns
+     * @return
+     */
+    static long pawnAttacks(int color, long pawns) {
+        if (color == BitboardPosition.WHITE) {
+            return ((pawns << 7) & ~Bitboards.FILE_H) | ((pawns << 9) & ~Bitboards.FILE_A);
+        }
+        return ((pawns >>> 9) & ~Bitboards.FILE_H) | ((pawns >>> 7) & ~Bitboards.FILE_A);
+    }
+}
@@ -2,8 +2,10 @@ package com.github.slfotg.chess.evaluate;
 
 import java.util.Map;
 
+import com.github.slfotg.chess.BitboardPosition;
 import com.github.slfotg.chess.Board;
 import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
 import com.github.slfotg.chess.enums.Piece;
 import com.github.slfotg.chess.enums.Position;
 
@@ -15,6 +17,20 @@ public class NaiveEvaluationFunction implements BoardEvaluationFunction {
         return evaluate(board.getCurrentPieces()) - evaluate(board.getOpponentPieces());
     }
 
+    @Override
+    public double evaluate(SearchBoard board) {
+        return evaluate(board, BitboardPosition.WHITE) - evaluate(board, BitboardPosition.BLACK);
+    }
+
+    private double evaluate(BitboardPosition position, int color) {
+        // @formatter:off
+        return Long.bitCount(position.getBitboard(color, Piece.PAWN))
+                + 3 * Long.bitCount(position.getBitboard(color, Piece.KNIGHT) | position.getBitboard(color, Piece.BISHOP))
+                + 5 * Long.bitCount(position.getBitboard(color, Piece.ROOK))
+                + 9 * Long.bitCount(position.getBitboard(color, Piece.QUEEN));
+        // @formatter:on
+    }
+
     private double evaluate(Map<Position, Piece> pieces) {
         double value = 0;
         for (Piece piece : pieces.values()) {
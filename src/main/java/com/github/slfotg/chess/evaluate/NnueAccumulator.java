@@ -0,0 +1,205 @@
+package com.github.slfotg.chess.evaluate;
+
+import java.util.Arrays;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.move.Move;
+
+/**
+ * The transformer accumulators of an {@link NnueNetwork} for every ply of a
+ * {@link SearchBoard}, so one thread can evaluate a search tree without
+ * summing every feature of every position.
+ *
+ * Accumulators are updated lazily: when a position is evaluated, the nearest
+ * earlier ply with valid accumulators is found through the board's undo stack
+ * and only the pieces moved since then are added and removed. Interior nodes
+ * that are never evaluated cost nothing. A side whose king changes bucket, or
+ * a position without a valid ancestor close by, is summed from scratch.
+ */
+final class NnueAccumulator {
+
+    // updating over more plies than this is slower than summing all pieces
+    private static final int MAX_UPDATE_PLIES = 8;
+    private static final int PIECE_COUNT = 6;
+    private static final int KING = Piece.KING.ordinal();
+    private static final int ROOK = Piece.ROOK.ordinal();
+
+    private final NnueNetwork network;
+    private final int hiddenSize;
+    private final byte[] activations;
+    private final long[] sums;
+    // both sides' accumulators of a position evaluated on its own
+    private final short[] scratch;
+    // feature rows changed since an earlier ply, at most two of each per move,
+    // or one added for each piece when refreshing
+    private final int[] added = new int[Math.max(2 * MAX_UPDATE_PLIES, 32)];
+    private final int[] removed = new int[2 * MAX_UPDATE_PLIES];
+    private int addedCount;
+    private int removedCount;
+
+    private SearchBoard board;
+    // both sides' accumulators for each ply, White's first
+    private short[] values;
+    // the key of the position each ply's accumulators were computed for
+    private long[] keys;
+    private boolean[] valid;
+
+    NnueAccumulator(NnueNetwork network) {
+        this.network = network;
+        this.hiddenSize = network.getHiddenSize();
+        this.activations = new byte[2 * hiddenSize];
+        this.sums = new long[network.getLayerPairs()];
+        this.scratch = new short[2 * hiddenSize];
+        allocate(64);
+    }
+
+    private void allocate(int plies) {
+        values = new short[plies * 2 * hiddenSize];
+        keys = new long[plies];
+        valid = new boolean[plies];
+    }
+
+    /**
+     * Evaluate the board's current position
+     *
+     * @param board
+     * @return centipawns for the side to move
+     */
+    int evaluate(SearchBoard board) {
+        int offset = update(board);
+        int us = board.getSideToMoveIndex();
+        return network.propagate(values, offset + us * hiddenSize, offset + (us ^ 1) * hiddenSize, activations,
+                sums);
+    }
+
+    /**
+     * Evaluate a position with no search board to follow, summing its
+     * accumulators from scratch. The accumulators of the plies are left as they
+     * are.
+     *
+     * @param position
+     * @return centipawns for the side to move
+     */
+    int evaluate(BitboardPosition position) {
+        for (int perspective = BitboardPosition.WHITE; perspective <= BitboardPosition.BLACK; perspective += 1) {
+            int bucket = network.kingBucket(perspective, position.getKingSquare(perspective));
+            addedCount = 0;
+            refresh(position, perspective, bucket, scratch, perspective * hiddenSize);
+        }
+        int us = position.getSideToMoveIndex();
+        return network.propagate(scratch, us * hiddenSize, (us ^ 1) * hiddenSize, activations, sums);
+    }
+
+    /**
+     * Bring the accumulators of the board's current ply up to date
+     *
+     * @return the offset of the ply's accumulators
+     */
+    private int update(SearchBoard board) {
+        if (this.board != board) {
+            this.board = board;
+            Arrays.fill(valid, false);
+        }
+        int ply = board.getPly();
+        if (ply >= keys.length) {
+            allocate(Math.max(2 * keys.length, ply + 1));
+        }
+        long key = board.getZobristKey();
+        int offset = ply * 2 * hiddenSize;
+        if (valid[ply] && keys[ply] == key) {
+            return offset;
+        }
+
+        int ancestor = ply - 1;
+        int oldest = Math.max(0, ply - MAX_UPDATE_PLIES);
+        while (ancestor >= oldest && !(valid[ancestor] && keys[ancestor] == board.getZobristKey(ancestor))) {
+            ancestor -= 1;
+        }
+        for (int perspective = BitboardPosition.WHITE; perspective <= BitboardPosition.BLACK; perspective += 1) {
+            int accumulator = offset + perspective * hiddenSize;
+            int bucket = network.kingBucket(perspective, board.getKingSquare(perspective));
+            addedCount = 0;
+            removedCount = 0;
+            if (ancestor >= oldest && !kingChangedBucket(board, perspective, ancestor)) {
+                for (int i = ancestor; i < ply; i += 1) {
+                    addMoveFeatures(board, perspective, bucket, i);
+                }
+                network.update(values, ancestor * 2 * hiddenSize + perspective * hiddenSize, accumulator, added,
+                        addedCount, removed, removedCount);
+            } else {
+                refresh(board, perspective, bucket, values, accumulator);
+            }
+        }
+        keys[ply] = key;
+        valid[ply] = true;
+        return offset;
+    }
+
+    /**
+     * Returns true if a king move since the ancestor ply moved the king of a side
+     * to another bucket
+     */
+    private boolean kingChangedBucket(SearchBoard board, int perspective, int ancestor) {
+        int bucket = network.kingBucket(perspective, board.getKingSquare(perspective));
+        for (int i = ancestor; i < board.getPly(); i += 1) {
+            int move = board.getMove(i);
+            if (Move.pieceIndex(move) == KING && moverColor(board, i) == perspective
+                    && network.kingBucket(perspective, Move.from(move)) != bucket) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collect the features of one side changed by the pieces moved, captured and
+     * promoted by the move made at a ply
+     */
+    private void addMoveFeatures(SearchBoard board, int perspective, int bucket, int ply) {
+        int move = board.getMove(ply);
+        int color = moverColor(board, ply);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = color * PIECE_COUNT + Move.pieceIndex(move);
+        int finalPiece = Move.isPromotion(move) ? color * PIECE_COUNT + Move.promotionIndex(move) : piece;
+
+        removed[removedCount++] = network.featureRow(perspective, bucket, piece, from);
+        added[addedCount++] = network.featureRow(perspective, bucket, finalPiece, to);
+        int captured = board.getCapturedPiece(ply);
+        if (captured != SearchBoard.EMPTY) {
+            int square = Move.isEnPassant(move) ? to ^ 8 : to;
+            removed[removedCount++] = network.featureRow(perspective, bucket, captured, square);
+        }
+        if (Move.isCastle(move)) {
+            boolean kingSide = (to & 7) == 6;
+            int rook = color * PIECE_COUNT + ROOK;
+            removed[removedCount++] = network.featureRow(perspective, bucket, rook, kingSide ? to + 1 : to - 2);
+            added[addedCount++] = network.featureRow(perspective, bucket, rook, kingSide ? to - 1 : to + 1);
+        }
+    }
+
+    /**
+     * Sum one side's accumulator over all pieces on the board
+     */
+    private void refresh(BitboardPosition board, int perspective, int bucket, short[] accumulators,
+            int accumulator) {
+        for (int coloredPiece = 0; coloredPiece < 2 * PIECE_COUNT; coloredPiece += 1) {
+            long pieces = board.getBitboard(coloredPiece / PIECE_COUNT, coloredPiece % PIECE_COUNT);
+            for (; pieces != 0; pieces &= pieces - 1) {
+                added[addedCount++] = network.featureRow(perspective, bucket, coloredPiece,
+                        Long.numberOfTrailingZeros(pieces));
+            }
+        }
+        network.refresh(accumulators, accumulator, added, addedCount);
+    }
+
+    /**
+     * Returns the color that made the move at a ply
+     */
+    private static int moverColor(SearchBoard board, int ply) {
+        // sides alternate, and the side to move now did not make the last move
+        return board.getSideToMoveIndex() ^ ((board.getPly() - ply) & 1);
+    }
+}
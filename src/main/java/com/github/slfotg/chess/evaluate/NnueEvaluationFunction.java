@@ -0,0 +1,69 @@
+package com.github.slfotg.chess.evaluate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+
+/**
+ * Evaluation by an {@link NnueNetwork}.
+ *
+ * Each thread keeps its own accumulators, which follow the moves made on the
+ * {@link SearchBoard} it evaluates, so the network's first layer is only
+ * updated for the pieces that moved. Making and unmaking moves does not touch
+ * the accumulators at all. A {@link GameState} is evaluated from scratch, in
+ * the same thread's scratch space.
+ */
+public class NnueEvaluationFunction implements BoardEvaluationFunction {
+
+    private final NnueNetwork network;
+    private final ThreadLocal<NnueAccumulator> accumulators;
+
+    public NnueEvaluationFunction(NnueNetwork network) {
+        this.network = network;
+        this.accumulators = ThreadLocal.withInitial(() -> new NnueAccumulator(network));
+    }
+
+    /**
+     * Create an evaluation from a weights file
+     *
+     * @param path
+     * @return
+     * @throws IOException if the file can not be read or is not a network
+     */
+    public static NnueEvaluationFunction load(Path path) throws IOException {
+        return new NnueEvaluationFunction(NnueNetwork.load(path));
+    }
+
+    public NnueNetwork getNetwork() {
+        return network;
+    }
+
+    @Override
+    public double evaluate(GameState gameState) {
+        return evaluateCentipawns(gameState) / 100.0;
+    }
+
+    @Override
+    public double evaluate(SearchBoard board) {
+        return evaluateCentipawns(board) / 100.0;
+    }
+
+    @Override
+    public int evaluateCentipawns(GameState gameState) {
+        int score = accumulators.get().evaluate(gameState);
+        return gameState.getSideToMoveIndex() == BitboardPosition.WHITE ? score : -score;
+    }
+
+    @Override
+    public int evaluateCentipawns(SearchBoard board) {
+        return whiteScore(accumulators.get(), board);
+    }
+
+    private static int whiteScore(NnueAccumulator accumulator, SearchBoard board) {
+        int score = accumulator.evaluate(board);
+        return board.getSideToMoveIndex() == BitboardPosition.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,367 @@
+package com.github.slfotg.chess.evaluate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Weights of a small quantized efficiently updatable neural network.
+ *
+ * <pre>
+ * input        one feature per king bucket, piece and square, seen from each
+ *              side (HalfKA with the king squares grouped into buckets)
+ * transformer  int16 weights summed into one accumulator of hiddenSize values
+ *              per side, clipped to 0..127
+ * layer 1      both accumulators (side to move first) to layerSize neurons,
+ *              int8 weights, int32 sums shifted down and clipped to 0..127
+ * output       layerSize neurons to one int32, int8 weights, divided by the
+ *              output divisor to give centipawns for the side to move
+ * </pre>
+ *
+ * Features of a side are oriented so that side plays up the board: squares are
+ * flipped vertically for Black and pieces are counted as own or enemy pieces.
+ *
+ * The weights file is little endian: the magic number, the version, the number
+ * of king buckets, hiddenSize, layerSize and the output divisor as int32, then
+ * the transformer biases and weights as int16 (weights grouped by feature), the
+ * layer 1 biases as int32 and weights as int8 (grouped by neuron), and the
+ * output bias as int32 and weights as int8.
+ */
+public final class NnueNetwork {
+
+    public static final int MAGIC = 0x4E4E4353;
+    public static final int VERSION = 1;
+
+    /**
+     * The largest value of a clipped activation
+     */
+    public static final int ACTIVATION_MAX = 127;
+    // layer 1 sums are scaled down by this many bits before clipping
+    static final int LAYER_SHIFT = 6;
+
+    // layer 1 sums of clipped activations times int8 weights fit in an int, as
+    // the packed sums of the kernels require, up to this size
+    private static final int MAX_HIDDEN_SIZE = 1 << 15;
+    private static final int PIECE_COUNT = 6;
+    private static final int FEATURES_PER_BUCKET = 2 * PIECE_COUNT * 64;
+
+    // chosen once for all networks
+    private static final EvaluationKernels KERNELS = EvaluationKernels.select();
+
+    private final int kingBuckets;
+    private final int hiddenSize;
+    private final int layerSize;
+    private final int outputDivisor;
+    private final short[] transformerBiases;
+    private final short[] transformerWeights;
+    private final int[] layerBiases;
+    // grouped by input in memory, by neuron in the weights file
+    private final byte[] layerWeights;
+    // the layer weights packed in pairs of neurons for the kernels
+    private final long[] pairedLayerWeights;
+    private final byte[] outputWeights;
+    private int outputBias;
+
+    private NnueNetwork(int kingBuckets, int hiddenSize, int layerSize, int outputDivisor) {
+        if (kingBuckets < 1 || kingBuckets > 64 || 64 % kingBuckets != 0) {
+            throw new IllegalArgumentException("the number of king buckets must divide 64");
+        }
+        if (hiddenSize < 1 || layerSize < 1 || outputDivisor < 1) {
+            throw new IllegalArgumentException("layer sizes and the output divisor must be positive");
+        }
+        if (hiddenSize > MAX_HIDDEN_SIZE) {
+            throw new IllegalArgumentException("the hidden size can be at most " + MAX_HIDDEN_SIZE);
+        }
+        this.kingBuckets = kingBuckets;
+        this.hiddenSize = hiddenSize;
+        this.layerSize = layerSize;
+        this.outputDivisor = outputDivisor;
+        this.transformerBiases = new short[hiddenSize];
+        this.transformerWeights = new short[kingBuckets * FEATURES_PER_BUCKET * hiddenSize];
+        this.layerBiases = new int[layerSize];
+        this.layerWeights = new byte[layerSize * 2 * hiddenSize];
+        this.pairedLayerWeights = new long[getLayerPairs() * 2 * hiddenSize];
+        this.outputWeights = new byte[layerSize];
+    }
+
+    /**
+     * Read a network from a weights file
+     *
+     * @param path
+     * @return
+     * @throws IOException if the file can not be read or is not a network
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Read a network in the weights file format
+     *
+     * @param in
+     * @return
+     * @throws IOException if the stream can not be read or is not a network
+     */
+    public static NnueNetwork read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (readInt(data) != MAGIC) {
+            throw new IOException("not a network file");
+        }
+        int version = readInt(data);
+        if (version != VERSION) {
+            throw new IOException("unsupported network version " + version);
+        }
+        NnueNetwork network;
+        try {
+            network = new NnueNetwork(readInt(data), readInt(data), readInt(data), readInt(data));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("invalid network header", e);
+        }
+        readShorts(data, network.transformerBiases);
+        readShorts(data, network.transformerWeights);
+        readInts(data, network.layerBiases);
+        byte[] layerWeights = new byte[network.layerWeights.length];
+        data.readFully(layerWeights);
+        transpose(layerWeights, network.layerWeights, network.layerSize, 2 * network.hiddenSize);
+        network.outputBias = readInt(data);
+        data.readFully(network.outputWeights);
+        network.pairLayerWeights();
+        return network;
+    }
+
+    /**
+     * Write the network in the weights file format
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        for (int value : new int[] { MAGIC, VERSION, kingBuckets, hiddenSize, layerSize, outputDivisor }) {
+            data.writeInt(Integer.reverseBytes(value));
+        }
+        for (short value : transformerBiases) {
+            data.writeShort(Short.reverseBytes(value));
+        }
+        for (short value : transformerWeights) {
+            data.writeShort(Short.reverseBytes(value));
+        }
+        for (int value : layerBiases) {
+            data.writeInt(Integer.reverseBytes(value));
+        }
+        byte[] neuronWeights = new byte[layerWeights.length];
+        transpose(layerWeights, neuronWeights, 2 * hiddenSize, layerSize);
+        data.write(neuronWeights);
+        data.writeInt(Integer.reverseBytes(outputBias));
+        data.write(outputWeights);
+        data.flush();
+    }
+
+    /**
+     * Create a network with random weights, which plays no better than chance
+     * but exercises the same code as a trained one (for tests and benchmarks)
+     *
+     * @param seed
+     * @param kingBuckets
+     * @param hiddenSize
+     * @param layerSize
+     * @return
+     */
+    public static NnueNetwork random(long seed, int kingBuckets, int hiddenSize, int layerSize) {
+        SplittableRandom random = new SplittableRandom(seed);
+        NnueNetwork network = new NnueNetwork(kingBuckets, hiddenSize, layerSize, 16);
+        for (int i = 0; i < network.transformerBiases.length; i += 1) {
+            network.transformerBiases[i] = (short) random.nextInt(-32, 64);
+        }
+        for (int i = 0; i < network.transformerWeights.length; i += 1) {
+            network.transformerWeights[i] = (short) random.nextInt(-24, 25);
+        }
+        for (int i = 0; i < network.layerBiases.length; i += 1) {
+            network.layerBiases[i] = random.nextInt(-1024, 1024);
+        }
+        for (int i = 0; i < network.layerWeights.length; i += 1) {
+            network.layerWeights[i] = (byte) random.nextInt(-32, 33);
+        }
+        for (int i = 0; i < network.outputWeights.length; i += 1) {
+            network.outputWeights[i] = (byte) random.nextInt(-64, 65);
+        }
+        network.outputBias = random.nextInt(-256, 256);
+        network.pairLayerWeights();
+        return network;
+    }
+
+    public int getKingBuckets() {
+        return kingBuckets;
+    }
+
+    public int getHiddenSize() {
+        return hiddenSize;
+    }
+
+    public int getLayerSize() {
+        return layerSize;
+    }
+
+    /**
+     * Returns the number of packed pairs of layer 1 sums, the size of the
+     * scratch space of {@link #propagate}
+     *
+     * @return
+     */
+    int getLayerPairs() {
+        return (layerSize + 1) / 2;
+    }
+
+    /**
+     * Returns the kernels used by all networks
+     *
+     * @return
+     */
+    public static EvaluationKernels getKernels() {
+        return KERNELS;
+    }
+
+    /**
+     * Returns the king bucket of a side
+     *
+     * @param perspective the color index of the side
+     * @param kingSquare  the square of that side's king
+     * @return
+     */
+    int kingBucket(int perspective, int kingSquare) {
+        return orient(perspective, kingSquare) * kingBuckets / 64;
+    }
+
+    /**
+     * Returns the offset in the transformer weights of the feature of a piece
+     * seen from one side
+     *
+     * @param perspective  the color index of the side
+     * @param kingBucket   the king bucket of that side
+     * @param coloredPiece color * 6 + piece ordinal
+     * @param square
+     * @return
+     */
+    int featureRow(int perspective, int kingBucket, int coloredPiece, int square) {
+        int color = coloredPiece / PIECE_COUNT;
+        int piece = (color == perspective ? 0 : PIECE_COUNT) + coloredPiece % PIECE_COUNT;
+        return ((kingBucket * 2 * PIECE_COUNT + piece) * 64 + orient(perspective, square)) * hiddenSize;
+    }
+
+    private static int orient(int perspective, int square) {
+        return perspective == 0 ? square : square ^ 56;
+    }
+
+    /**
+     * Set an accumulator to the transformer biases plus the given features
+     *
+     * @param accumulators
+     * @param offset       the offset of the accumulator
+     * @param rows         the {@link #featureRow feature rows}
+     * @param count        the number of features
+     */
+    void refresh(short[] accumulators, int offset, int[] rows, int count) {
+        KERNELS.update(transformerBiases, 0, accumulators, offset, transformerWeights, rows, count, rows, 0,
+                hiddenSize);
+    }
+
+    /**
+     * Set an accumulator to another one with features added and removed
+     *
+     * @param accumulators
+     * @param srcOffset    the offset of the accumulator to start from
+     * @param dstOffset    the offset of the accumulator to set
+     * @param added        the {@link #featureRow feature rows} to add
+     * @param addedCount
+     * @param removed      the feature rows to remove
+     * @param removedCount
+     */
+    void update(short[] accumulators, int srcOffset, int dstOffset, int[] added, int addedCount, int[] removed,
+            int removedCount) {
+        KERNELS.update(accumulators, srcOffset, accumulators, dstOffset, transformerWeights, added, addedCount,
+                removed, removedCount, hiddenSize);
+    }
+
+    /**
+     * Run the dense layers on the accumulators of both sides
+     *
+     * @param accumulators the accumulator values
+     * @param us           the offset of the accumulator of the side to move
+     * @param them         the offset of the accumulator of the other side
+     * @param activations  scratch space of 2 * hiddenSize values
+     * @param sums         scratch space of {@link #getLayerPairs} values
+     * @return centipawns for the side to move
+     */
+    int propagate(short[] accumulators, int us, int them, byte[] activations, long[] sums) {
+        KERNELS.clip(accumulators, us, activations, 0, hiddenSize, ACTIVATION_MAX);
+        KERNELS.clip(accumulators, them, activations, hiddenSize, hiddenSize, ACTIVATION_MAX);
+        int pairs = getLayerPairs();
+        Arrays.fill(sums, 0, pairs, 0L);
+        KERNELS.affine(activations, 2 * hiddenSize, pairedLayerWeights, sums, pairs);
+        int output = outputBias;
+        for (int neuron = 0; neuron < layerSize; neuron += 1) {
+            long pair = sums[neuron >> 1];
+            int low = (int) pair;
+            int sum = (neuron & 1) == 0 ? low : (int) ((pair - low) >> 32);
+            output += clip((layerBiases[neuron] + sum) >> LAYER_SHIFT) * outputWeights[neuron];
+        }
+        return output / outputDivisor;
+    }
+
+    /**
+     * Pack the layer weights of each input in pairs of neurons, the low neuron
+     * sign extended and the high one shifted on top, with a weight of 0 for the
+     * missing neuron of an odd layer size
+     */
+    private void pairLayerWeights() {
+        int pairs = getLayerPairs();
+        for (int input = 0; input < 2 * hiddenSize; input += 1) {
+            for (int pair = 0; pair < pairs; pair += 1) {
+                int neuron = input * layerSize + 2 * pair;
+                long high = 2 * pair + 1 < layerSize ? layerWeights[neuron + 1] : 0;
+                pairedLayerWeights[input * pairs + pair] = (high << 32) + layerWeights[neuron];
+            }
+        }
+    }
+
+    /**
+     * Copy a rows by columns matrix to its transpose
+     */
+    private static void transpose(byte[] src, byte[] dst, int rows, int columns) {
+        for (int row = 0; row < rows; row += 1) {
+            for (int column = 0; column < columns; column += 1) {
+                dst[column * rows + row] = src[row * columns + column];
+            }
+        }
+    }
+
+    private static byte clip(int value) {
+        return (byte) Math.max(0, Math.min(value, ACTIVATION_MAX));
+    }
+
+    private static int readInt(DataInputStream data) throws IOException {
+        return Integer.reverseBytes(data.readInt());
+    }
+
+    private static void readInts(DataInputStream data, int[] values) throws IOException {
+        for (int i = 0; i < values.length; i += 1) {
+            values[i] = readInt(data);
+        }
+    }
+
+    private static void readShorts(DataInputStream data, short[] values) throws IOException {
+        for (int i = 0; i < values.length; i += 1) {
+            values[i] = Short.reverseBytes(data.readShort());
+        }
+    }
+}
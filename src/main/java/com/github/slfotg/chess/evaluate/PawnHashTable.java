@@ -0,0 +1,95 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.util.LocklessHashTable;
+
+/**
+ * Fixed size cache of pawn structure scores keyed by
+ * {@link com.github.slfotg.chess.BitboardPosition#getPawnKey()}. Pawns move
+ * rarely, so most positions of a search share their pawn structure with many
+ * others and the structure only has to be evaluated once.
+ *
+ * Threads share the table without locks (see {@link LocklessHashTable}).
+ *
+ * <pre>
+ * data bits  0-31  middlegame score (signed)
+ *           32-63  endgame score (signed)
+ * </pre>
+ */
+public final class PawnHashTable {
+
+    public static final int DEFAULT_SIZE_MB = 2;
+
+    /**
+     * Returned by {@link #probe(long)} when the pawn structure is not in the
+     * table (scores this large never occur)
+     */
+    public static final long NO_ENTRY = Long.MIN_VALUE;
+
+    private final LocklessHashTable table;
+
+    public PawnHashTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Create a table using at most the given amount of memory
+     *
+     * @param megabytes the size of the table (rounded down to a power of two
+     *                  number of slots)
+     */
+    public PawnHashTable(int megabytes) {
+        // empty slots hold NO_ENTRY as their data, so they read as a miss even
+        // for the one key they match
+        table = new LocklessHashTable(megabytes, NO_ENTRY);
+    }
+
+    /**
+     * Look up a pawn structure
+     *
+     * @param pawnKey
+     * @return the packed scores (read them with {@link #middlegame(long)} and
+     *         {@link #endgame(long)}) or NO_ENTRY
+     */
+    public long probe(long pawnKey) {
+        return table.read(pawnKey, NO_ENTRY);
+    }
+
+    /**
+     * Store the scores of a pawn structure, replacing whatever was in its slot
+     *
+     * @param pawnKey
+     * @param middlegame
+     * @param endgame
+     * @return the packed scores
+     */
+    public long store(long pawnKey, int middlegame, int endgame) {
+        long data = pack(middlegame, endgame);
+        table.write(pawnKey, data);
+        return data;
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Returns the number of slots in the table
+     *
+     * @return
+     */
+    public int capacity() {
+        return table.capacity();
+    }
+
+    public static long pack(int middlegame, int endgame) {
+        return (middlegame & 0xFFFFFFFFL) | ((long) endgame << 32);
+    }
+
+    public static int middlegame(long data) {
+        return (int) data;
+    }
+
+    public static int endgame(long data) {
+        return (int) (data >> 32);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.bitboard.Bitboards;
+import com.github.slfotg.chess.enums.Piece;
+
+/**
+ * Penalizes doubled and isolated pawns and rewards passed pawns the more the
+ * closer they are to promotion. The score only depends on the pawns, so it is
+ * cached in a {@link PawnHashTable} by the pawn key of the position.
+ */
+public final class PawnStructureTerm implements EvaluationTerm {
+
+    private static final int DOUBLED_MIDDLEGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDDLEGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    // indexed by the rank of the pawn counted from its own side
+    private static final int[] PASSED_MIDDLEGAME = { 0, 5, 10, 15, 25, 40, 60, 0 };
+    private static final int[] PASSED_ENDGAME = { 0, 10, 20, 35, 60, 100, 150, 0 };
+
+    private final PawnHashTable pawnHashTable;
+
+    public PawnStructureTerm() {
+        this(new PawnHashTable());
+    }
+
+    public PawnStructureTerm(PawnHashTable pawnHashTable) {
+        this.pawnHashTable = pawnHashTable;
+    }
+
+    public PawnHashTable getPawnHashTable() {
+        return pawnHashTable;
+    }
+
+    @Override
+    public int evaluate(BitboardPosition position, int phase) {
+        long pawnKey = position.getPawnKey();
+        long scores = pawnHashTable.probe(pawnKey);
+        if (scores == PawnHashTable.NO_ENTRY) {
+            scores = evaluatePawns(position.getBitboard(BitboardPosition.WHITE, Piece.PAWN),
+                    position.getBitboard(BitboardPosition.BLACK, Piece.PAWN));
+            pawnHashTable.store(pawnKey, PawnHashTable.middlegame(scores), PawnHashTable.endgame(scores));
+        }
+        return PieceSquareTables.taper(PawnHashTable.middlegame(scores), PawnHashTable.endgame(scores), phase);
+    }
+
+    /**
+     * Score a pawn structure without the cache
+     *
+     * @param white the white pawns
+     * @param black the black pawns
+     * @return the middlegame and endgame scores from White's side packed as by
+     *         {@link PawnHashTable#pack(int, int)}
+     */
+    static long evaluatePawns(long white, long black) {
+        long whiteScores = evaluatePawns(BitboardPosition.WHITE, white, black);
+        long blackScores = evaluatePawns(BitboardPosition.BLACK, black, white);
+        return PawnHashTable.pack(PawnHashTable.middlegame(whiteScores) - PawnHashTable.middlegame(blackScores),
+                PawnHashTable.endgame(whiteScores) - PawnHashTable.endgame(blackScores));
+    }
+
+    private static long evaluatePawns(int color, long own, long enemy) {
+        int middlegame = 0;
+        int endgame = 0;
+        for (int file = 0; file < 8; file += 1) {
+            int count = Long.bitCount(own & (Bitboards.FILE_A << file));
+            if (count > 1) {
+                middlegame += (count - 1) * DOUBLED_MIDDLEGAME;
+                endgame += (count - 1) * DOUBLED_ENDGAME;
+            }
+        }
+        for (long pawns = own; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            int file = square & 7;
+            int rank = square >>> 3;
+            long fileMask = Bitboards.FILE_A << file;
+            long neighborFiles = ((fileMask << 1) & ~Bitboards.FILE_A) | ((fileMask >>> 1) & ~Bitboards.FILE_H);
+            if ((own & neighborFiles) == 0) {
+                middlegame += ISOLATED_MIDDLEGAME;
+                endgame += ISOLATED_ENDGAME;
+            }
+            // the ranks the pawn still has to cross
+            long ahead = color == BitboardPosition.WHITE ? -1L << (8 * rank) << 8 : (1L << (8 * rank)) - 1;
+            if ((enemy & ahead & (fileMask | neighborFiles)) == 0) {
+                int relativeRank = color == BitboardPosition.WHITE ? rank : 7 - rank;
+                middlegame += PASSED_MIDDLEGAME[relativeRank];
+                endgame += PASSED_ENDGAME[relativeRank];
+            }
+        }
+        return PawnHashTable.pack(middlegame, endgame);
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.slfotg.chess.evaluate;
+
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+
+/**
+ * Material and piece-square evaluation (see {@link PieceSquareTables}), blended
+ * from the middlegame to the endgame by the game phase.
+ *
+ * A {@link SearchBoard} keeps the sums up to date as moves are made, so
+ * evaluating one takes constant time. A {@link GameState} is evaluated from its
+ * bitboards.
+ */
+public class PieceSquareEvaluationFunction extends EvaluationPipeline {
+
+    public PieceSquareEvaluationFunction() {
+        super(new MaterialTerm());
+    }
+}
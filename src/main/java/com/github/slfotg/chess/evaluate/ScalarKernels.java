@@ -0,0 +1,77 @@
+package com.github.slfotg.chess.evaluate;
+
+/**
+ * The {@link EvaluationKernels} as plain loops over primitive arrays, which
+ * the JIT compiler unrolls and, for the accumulator updates, vectorizes with
+ * the SIMD instructions of the host.
+ *
+ * Quiet moves (one row added, one removed) and captures (one added, two
+ * removed) get fused loops that read and write every value once. Other updates
+ * copy the values and then apply one row at a time. The dense layer skips the
+ * inputs that are 0 rather than multiplying by them, and works on packed pairs
+ * of outputs: its rows are too short for the JIT compiler to vectorize, and a
+ * 64-bit multiply-add updates two outputs for the price of one.
+ */
+public final class ScalarKernels implements EvaluationKernels {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void update(short[] src, int srcOffset, short[] dst, int dstOffset, short[] weights, int[] added,
+            int addedCount, int[] removed, int removedCount, int length) {
+        if (addedCount == 1 && removedCount == 1) {
+            int add = added[0];
+            int sub = removed[0];
+            for (int i = 0; i < length; i += 1) {
+                dst[dstOffset + i] = (short) (src[srcOffset + i] + weights[add + i] - weights[sub + i]);
+            }
+        } else if (addedCount == 1 && removedCount == 2) {
+            int add = added[0];
+            int sub1 = removed[0];
+            int sub2 = removed[1];
+            for (int i = 0; i < length; i += 1) {
+                dst[dstOffset + i] = (short) (src[srcOffset + i] + weights[add + i] - weights[sub1 + i]
+                        - weights[sub2 + i]);
+            }
+        } else {
+            if (src != dst || srcOffset != dstOffset) {
+                System.arraycopy(src, srcOffset, dst, dstOffset, length);
+            }
+            for (int f = 0; f < addedCount; f += 1) {
+                int add = added[f];
+                for (int i = 0; i < length; i += 1) {
+                    dst[dstOffset + i] += weights[add + i];
+                }
+            }
+            for (int f = 0; f < removedCount; f += 1) {
+                int sub = removed[f];
+                for (int i = 0; i < length; i += 1) {
+                    dst[dstOffset + i] -= weights[sub + i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clip(short[] src, int srcOffset, byte[] dst, int dstOffset, int length, int max) {
+        for (int i = 0; i < length; i += 1) {
+            dst[dstOffset + i] = (byte) Math.max(0, Math.min(src[srcOffset + i], max));
+        }
+    }
+
+    @Override
+    public void affine(byte[] input, int inputLength, long[] weights, long[] sums, int pairCount) {
+        for (int i = 0; i < inputLength; i += 1) {
+            long value = input[i];
+            if (value != 0) {
+                int row = i * pairCount;
+                for (int j = 0; j < pairCount; j += 1) {
+                    sums[j] += value * weights[row + j];
+                }
+            }
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package com.github.slfotg.chess.move;
 
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import com.github.slfotg.chess.Board;
@@ -16,6 +14,16 @@ public interface ChessMove {
 
     Position[] getPath();
 
+    /**
+     * Returns the piece that ends up on the final position (only differs from
+     * getPiece() for pawn promotions)
+     * 
+     * @return
+     */
+    default Piece getFinalPiece() {
+        return getPiece();
+    }
+
     default Position getStartingPosition() {
         return getPath()[0];
     }
@@ -33,21 +41,8 @@ public interface ChessMove {
      */
     default Board applyMove(Board currentBoard) {
         Piece piece = getPiece();
-        // @formatter:off
-        Map<Position, Piece> currentPieces =
-                currentBoard.getCurrentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getCurrentPieces());
-        Map<Position, Piece> opponentPieces =
-                currentBoard.getOpponentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getOpponentPieces());
-        // @formatter:on
-        currentPieces.remove(getStartingPosition());
-        getAttackedPosition().ifPresent(opponentPieces::remove);
-        currentPieces.put(getFinalPosition(), piece);
-        return new Board(currentPieces, opponentPieces, currentBoard.getKingPosition(),
-                currentBoard.getOpponentKingPosition());
+        return currentBoard.move(piece, getStartingPosition(), getFinalPosition(), piece,
+                getAttackedPosition().orElse(null));
     }
 
     /**
@@ -60,6 +55,28 @@ public interface ChessMove {
         return currentPlayerRights;
     }
 
+    /**
+     * Get the opponent's updated castling rights after this move (capturing a
+     * rook on its starting position removes that side's rights)
+     * 
+     * @param opponentRights
+     * @return
+     */
+    default CastlingRights updateOpponentCastlingRights(CastlingRights opponentRights) {
+        Optional<Position> attackedPosition = getAttackedPosition();
+        if (attackedPosition.isEmpty()) {
+            return opponentRights;
+        }
+        switch (attackedPosition.get()) {
+        case A8:
+            return opponentRights.removeQueenSideRights();
+        case H8:
+            return opponentRights.removeKingSideRights();
+        default:
+            return opponentRights;
+        }
+    }
+
     default boolean hasCastlingRights(CastlingRights currentPlayerRights) {
         return true;
     }
@@ -92,8 +109,8 @@ public interface ChessMove {
      */
     default boolean isCapture(Board currentBoard) {
         var attackedPosition = getAttackedPosition();
-        var opponentPieces = currentBoard.getOpponentPieces();
-        return attackedPosition.map(opponentPieces::containsKey).orElse(false);
+        var opponentOccupancy = currentBoard.getOpponentOccupancy();
+        return attackedPosition.map(position -> (opponentOccupancy & position.getMask()) != 0).orElse(false);
     }
 
     /**
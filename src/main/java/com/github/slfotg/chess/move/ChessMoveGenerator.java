@@ -2,6 +2,7 @@ package com.github.slfotg.chess.move;
 
 import static com.github.slfotg.chess.enums.Position.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumMap;
@@ -10,33 +11,55 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import com.github.slfotg.chess.BitboardPosition;
 import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.bitboard.Bitboards;
+import com.github.slfotg.chess.bitboard.MagicBitboards;
 import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
 import com.github.slfotg.chess.enums.Piece;
 import com.github.slfotg.chess.enums.Position;
-import com.github.slfotg.chess.util.PositionInverter;
 
 public class ChessMoveGenerator {
 
-    private final PositionInverter positionInverter;
+    /**
+     * Captures (en passant included) and promotions
+     */
+    public static final int CAPTURES = 1;
+    /**
+     * Moves that neither capture nor promote, castling included
+     */
+    public static final int QUIETS = 2;
+    public static final int ALL_MOVES = CAPTURES | QUIETS;
+
+    private static final Piece[] SLIDING_PIECES = { Piece.BISHOP, Piece.ROOK, Piece.QUEEN };
+
     private final Map<Position, Collection<ChessMove>> allPawnMoves;
     private final Map<Position, Collection<ChessMove>> allKnightMoves;
-    private final Map<Position, Collection<ChessMove>> allBishopMoves;
-    private final Map<Position, Collection<ChessMove>> allRookMoves;
-    private final Map<Position, Collection<ChessMove>> allQueenMoves;
     private final Map<Position, Collection<ChessMove>> allKingMoves;
+    // sliding moves indexed by [starting square][final square]
+    private final ChessMove[][] bishopMoveTable;
+    private final ChessMove[][] rookMoveTable;
+    private final ChessMove[][] queenMoveTable;
 
-    public ChessMoveGenerator(PositionInverter positionInverter) {
-        this.positionInverter = positionInverter;
+    public ChessMoveGenerator() {
         DiagonalMoveGenerator diagonalMoveGenerator = new DiagonalMoveGenerator();
         StraightMoveGenerator straightMoveGenerator = new StraightMoveGenerator();
         allPawnMoves = generateAllPawnMoves();
         allKnightMoves = generateAllKnightMoves();
-        allBishopMoves = generateAllBishopMoves(diagonalMoveGenerator);
-        allRookMoves = generateAllRookMoves(straightMoveGenerator);
-        allQueenMoves = generateAllQueenMoves(straightMoveGenerator, diagonalMoveGenerator);
         allKingMoves = generateAllKingMoves(straightMoveGenerator, diagonalMoveGenerator);
+        bishopMoveTable = toMoveTable(generateAllBishopMoves(diagonalMoveGenerator));
+        rookMoveTable = toMoveTable(generateAllRookMoves(straightMoveGenerator));
+        queenMoveTable = toMoveTable(generateAllQueenMoves(straightMoveGenerator, diagonalMoveGenerator));
+    }
+
+    private static ChessMove[][] toMoveTable(Map<Position, Collection<ChessMove>> allMoves) {
+        ChessMove[][] moveTable = new ChessMove[64][64];
+        allMoves.values().forEach(moves -> moves.forEach(move -> moveTable[move.getStartingPosition()
+                .getIndex()][move.getFinalPosition().getIndex()] = move));
+        return moveTable;
     }
 
     private boolean isPathBlocked(ChessMove move, Board board, List<Position> attackedPositions) {
@@ -44,7 +67,7 @@ public class ChessMoveGenerator {
         // final position
         Position[] path = move.getPath();
         for (int i = 1; i < path.length - 1; i += 1) {
-            if (board.pieceAt(path[i]).isPresent()) {
+            if (board.isOccupied(path[i])) {
                 return true;
             }
         }
@@ -69,24 +92,21 @@ public class ChessMoveGenerator {
         var attackedPosition = move.getAttackedPosition();
         if (!move.isAttackingMove()) {
             // for pawn advances or castling, no piece can be on the final position
-            if (board.pieceAt(finalPosition).isPresent()) {
+            if (board.isOccupied(finalPosition)) {
                 return true;
             }
         } else if (attackedPosition.isPresent()) {
             if (move.isPawnMove()) {
                 // make sure there is an opponent piece to attack
                 if (attackedPosition.get() != finalPosition) {
-                    return finalPosition == enPassant;
+                    return finalPosition != enPassant;
                 }
-                if (!board.getOpponentPieces().containsKey(attackedPosition.get())) {
+                if ((board.getOpponentOccupancy() & attackedPosition.get().getMask()) == 0) {
                     return true;
                 }
             } else {
-                // checks to make sure not attacking own piece
-                if (board.getCurrentPieces().containsKey(attackedPosition.get())) {
-                    return true;
-                }
-                if (board.getKingPosition() == attackedPosition.get()) {
+                // checks to make sure not attacking own piece (including the king)
+                if ((board.getCurrentOccupancy() & attackedPosition.get().getMask()) != 0) {
                     return true;
                 }
             }
@@ -106,60 +126,473 @@ public class ChessMoveGenerator {
         return false;
     }
 
+    private static void addAllMoves(List<ChessMove> possibleMoves, Map<Position, Collection<ChessMove>> allMoves,
+            long pieces) {
+        for (long bits = pieces; bits != 0; bits &= bits - 1) {
+            possibleMoves.addAll(allMoves.get(Position.fromIndex(Long.numberOfTrailingZeros(bits))));
+        }
+    }
+
     protected List<ChessMove> getAllPossibleMoves(Board board) {
         List<ChessMove> possibleMoves = new LinkedList<>();
-        board.getCurrentPieces().entrySet().forEach(piecePosition -> {
-            var piece = piecePosition.getValue();
-            var position = piecePosition.getKey();
-            switch (piece) {
-            case PAWN:
-                possibleMoves.addAll(allPawnMoves.get(position));
-                break;
-            case BISHOP:
-                possibleMoves.addAll(allBishopMoves.get(position));
-                break;
-            case KNIGHT:
-                possibleMoves.addAll(allKnightMoves.get(position));
-                break;
-            case ROOK:
-                possibleMoves.addAll(allRookMoves.get(position));
-                break;
-            case QUEEN:
-                possibleMoves.addAll(allQueenMoves.get(position));
-                break;
-            default:
-                throw new RuntimeException("unexpected piece");
+        addAllMoves(possibleMoves, allPawnMoves, board.getCurrentBitboard(Piece.PAWN));
+        addAllMoves(possibleMoves, allKnightMoves, board.getCurrentBitboard(Piece.KNIGHT));
+        addAllMoves(possibleMoves, allKingMoves, board.getCurrentBitboard(Piece.KING));
+        return possibleMoves;
+    }
+
+    private static long slidingAttacks(Piece piece, int square, long occupancy) {
+        switch (piece) {
+        case BISHOP:
+            return MagicBitboards.bishopAttacks(square, occupancy);
+        case ROOK:
+            return MagicBitboards.rookAttacks(square, occupancy);
+        case QUEEN:
+            return MagicBitboards.queenAttacks(square, occupancy);
+        default:
+            throw new RuntimeException("unexpected piece");
+        }
+    }
+
+    private static void addSlidingMoves(List<ChessMove> possibleMoves, ChessMove[][] moveTable, Piece piece,
+            Board board) {
+        long occupancy = board.getOccupancy();
+        long targets = ~board.getCurrentOccupancy();
+        for (long pieces = board.getCurrentBitboard(piece); pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            for (long bits = slidingAttacks(piece, from, occupancy) & targets; bits != 0; bits &= bits - 1) {
+                possibleMoves.add(moveTable[from][Long.numberOfTrailingZeros(bits)]);
             }
-        });
-        possibleMoves.addAll(allKingMoves.get(board.getKingPosition()));
+        }
+    }
+
+    /**
+     * Get the unblocked bishop, rook and queen moves that don't capture one of the
+     * current player's own pieces
+     * 
+     * @param board
+     * @return
+     */
+    protected List<ChessMove> getSlidingMoves(Board board) {
+        List<ChessMove> possibleMoves = new LinkedList<>();
+        addSlidingMoves(possibleMoves, bishopMoveTable, Piece.BISHOP, board);
+        addSlidingMoves(possibleMoves, rookMoveTable, Piece.ROOK, board);
+        addSlidingMoves(possibleMoves, queenMoveTable, Piece.QUEEN, board);
         return possibleMoves;
     }
 
+    /**
+     * Get every position attacked by an opponent piece
+     * 
+     * @param board
+     * @return
+     */
     public List<Position> getOpponentAttacks(Board board) {
-        Board invertedBoard = positionInverter.invertBoard(board);
-        // @formatter:off
-        return getAllPossibleMoves(invertedBoard).stream()
-                .filter(ChessMove::isAttackingMove)
-                .filter(move -> !isPathBlocked(move, invertedBoard, new LinkedList<>()))
-                .map(positionInverter::invertChessMove)
-                .map(ChessMove::getFinalPosition)
-                .collect(Collectors.toList());
-        // @formatter:on
+        long occupancy = board.getOccupancy();
+        // the opponent's pawns attack down the board
+        long attacks = 0L;
+        for (long pieces = board.getOpponentBitboard(Piece.PAWN); pieces != 0; pieces &= pieces - 1) {
+            attacks |= Bitboards.pawnAttacks(BitboardPosition.BLACK, Long.numberOfTrailingZeros(pieces));
+        }
+        for (long pieces = board.getOpponentBitboard(Piece.KNIGHT); pieces != 0; pieces &= pieces - 1) {
+            attacks |= Bitboards.knightAttacks(Long.numberOfTrailingZeros(pieces));
+        }
+        for (long pieces = board.getOpponentBitboard(Piece.KING); pieces != 0; pieces &= pieces - 1) {
+            attacks |= Bitboards.kingAttacks(Long.numberOfTrailingZeros(pieces));
+        }
+        for (Piece piece : SLIDING_PIECES) {
+            for (long pieces = board.getOpponentBitboard(piece); pieces != 0; pieces &= pieces - 1) {
+                attacks |= slidingAttacks(piece, Long.numberOfTrailingZeros(pieces), occupancy);
+            }
+        }
+        List<Position> positions = new ArrayList<>(Long.bitCount(attacks));
+        for (long bits = attacks; bits != 0; bits &= bits - 1) {
+            positions.add(Position.fromIndex(Long.numberOfTrailingZeros(bits)));
+        }
+        return positions;
     }
 
     public List<ChessMove> getPossibleMoves(Board board, CastlingRights currentPlayerRights, Position enPassant) {
         List<ChessMove> possibleMoves = getAllPossibleMoves(board);
         List<Position> opponentAttacks = getOpponentAttacks(board);
         // @formatter:off
-        return possibleMoves.stream()
+        Stream<ChessMove> nonSlidingMoves = possibleMoves.stream()
                 .filter(move -> move.hasCastlingRights(currentPlayerRights))
                 .filter(move -> !isPathBlocked(move, board, opponentAttacks))
-                .filter(move -> !isFinalPositionBlocked(move, board, enPassant))
+                .filter(move -> !isFinalPositionBlocked(move, board, enPassant));
+        return Stream.concat(nonSlidingMoves, getSlidingMoves(board).stream())
                 .filter(move -> !leavesInCheck(move, board))
                 .collect(Collectors.toList());
         // @formatter:on
     }
 
+    /**
+     * Get the legal moves of the side to move as decoded ChessMove views
+     * 
+     * @param board
+     * @return
+     */
+    public List<ChessMove> getPossibleMoves(BitboardPosition board) {
+        MoveList moves = new MoveList();
+        generateLegalMoves(board, moves);
+        Color color = Color.values()[board.getSideToMoveIndex()];
+        List<ChessMove> possibleMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i += 1) {
+            possibleMoves.add(new EncodedChessMove(moves.get(i), color));
+        }
+        return possibleMoves;
+    }
+
+    /**
+     * Fill the list with the legal moves of the side to move. Checkers (cached
+     * by the position) and pinned pieces are found once per position, so only
+     * king moves and en passant captures need their own attack tests.
+     * 
+     * @param board
+     * @param moves the list to fill (it is cleared first)
+     */
+    public void generateLegalMoves(BitboardPosition board, MoveList moves) {
+        generateLegalMoves(board, moves, ALL_MOVES, -1L);
+    }
+
+    /**
+     * Fill the list with one stage of the legal moves of the side to move, so a
+     * search can look at captures before it pays for the quiet moves
+     * 
+     * @param board
+     * @param moves  the list to fill (it is cleared first)
+     * @param stages CAPTURES, QUIETS or ALL_MOVES
+     */
+    public void generateLegalMoves(BitboardPosition board, MoveList moves, int stages) {
+        generateLegalMoves(board, moves, stages, -1L);
+    }
+
+    /**
+     * Returns true if an encoded move is legal in the position, for moves that
+     * were not generated for it (such as moves from a transposition table).
+     * Only the moves of the piece on the starting square are generated.
+     * 
+     * @param board
+     * @param move
+     * @return
+     */
+    public boolean isLegal(BitboardPosition board, int move) {
+        return isLegal(board, move, new MoveList(32));
+    }
+
+    /**
+     * Returns true if an encoded move is legal in the position, generating into
+     * the given list so repeated tests do not allocate
+     * 
+     * @param board
+     * @param move
+     * @param scratch a list that is overwritten
+     * @return
+     */
+    public boolean isLegal(BitboardPosition board, int move, MoveList scratch) {
+        if (move == Move.NONE) {
+            return false;
+        }
+        int stages = Move.isCapture(move) || Move.isPromotion(move) ? CAPTURES : QUIETS;
+        generateLegalMoves(board, scratch, stages, 1L << Move.from(move));
+        return scratch.contains(move);
+    }
+
+    /**
+     * @param from the squares of the pieces to generate moves for
+     */
+    private void generateLegalMoves(BitboardPosition board, MoveList moves, int stages, long from) {
+        moves.clear();
+        int us = board.getSideToMoveIndex();
+        int them = us ^ 1;
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = own | enemy;
+        int king = board.getKingSquare(us);
+        long checkers = board.getCheckers();
+        long stageTargets = stageTargets(stages, enemy, occupied);
+
+        // a double check can only be escaped by moving the king
+        if (Long.bitCount(checkers) < 2 && (from & ~(1L << king)) != 0) {
+            // other pieces have to capture the checker or block the check
+            long checkMask = checkers == 0 ? -1L
+                    : checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers));
+            long pinned = pinnedPieces(board, us, king, own, occupied);
+            generatePieceMoves(board, moves, us, ~own & checkMask, pinned, king, true, stages, from);
+        }
+        if ((from & (1L << king)) == 0) {
+            return;
+        }
+
+        // the king is removed from the occupancy so it cannot step back along a
+        // slider's line
+        long kingless = occupied & ~(1L << king);
+        for (long bits = Bitboards.kingAttacks(king) & ~own & stageTargets; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            if (board.getAttackers(to, them, kingless) == 0) {
+                moves.add(Move.of(king, to, Piece.KING, (enemy & (1L << to)) != 0 ? Move.CAPTURE : 0));
+            }
+        }
+        if (checkers == 0 && (stages & QUIETS) != 0) {
+            addCastlingMoves(board, moves, us, king, occupied);
+        }
+    }
+
+    /**
+     * Returns the squares pieces other than pawns may move to in the given
+     * stages
+     */
+    private static long stageTargets(int stages, long enemy, long occupied) {
+        return ((stages & CAPTURES) != 0 ? enemy : 0L) | ((stages & QUIETS) != 0 ? ~occupied : 0L);
+    }
+
+    /**
+     * Returns true if the side to move has a legal move, stopping at the first
+     * one found: king moves are tried first, then knights, sliders and pawns.
+     * Castling is never the only legal move (the king could also step to the
+     * square it passes), so it is not tried.
+     * 
+     * @param board
+     * @return
+     */
+    public boolean hasLegalMove(BitboardPosition board) {
+        int us = board.getSideToMoveIndex();
+        int them = us ^ 1;
+        long own = board.getOccupancy(us);
+        long occupied = board.getOccupancy();
+        int king = board.getKingSquare(us);
+        long kingless = occupied & ~(1L << king);
+        for (long bits = Bitboards.kingAttacks(king) & ~own; bits != 0; bits &= bits - 1) {
+            if (board.getAttackers(Long.numberOfTrailingZeros(bits), them, kingless) == 0) {
+                return true;
+            }
+        }
+        long checkers = board.getCheckers();
+        if (Long.bitCount(checkers) >= 2) {
+            return false;
+        }
+        long targets = ~own & (checkers == 0 ? -1L
+                : checkers | Bitboards.between(king, Long.numberOfTrailingZeros(checkers)));
+        long pinned = pinnedPieces(board, us, king, own, occupied);
+        for (long pieces = board.getBitboard(us, Piece.KNIGHT) & ~pinned; pieces != 0; pieces &= pieces - 1) {
+            if ((Bitboards.knightAttacks(Long.numberOfTrailingZeros(pieces)) & targets) != 0) {
+                return true;
+            }
+        }
+        for (Piece piece : SLIDING_PIECES) {
+            for (long pieces = board.getBitboard(us, piece); pieces != 0; pieces &= pieces - 1) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                long destinations = slidingAttacks(piece, from, occupied) & targets;
+                if ((pinned & (1L << from)) != 0) {
+                    destinations &= Bitboards.line(king, from);
+                }
+                if (destinations != 0) {
+                    return true;
+                }
+            }
+        }
+        // pawn moves depend on pins, en passant and promotions, generate them
+        MoveList pawnMoves = new MoveList();
+        addPawnMoves(board, pawnMoves, us, targets, pinned, king, true, ALL_MOVES, -1L);
+        return !pawnMoves.isEmpty();
+    }
+
+    /**
+     * Fill the list with the moves of the side to move that may leave their own
+     * king in check. Castling is only generated when the king does not start on,
+     * pass through or land on an attacked square.
+     * 
+     * @param board
+     * @param moves the list to fill (it is cleared first)
+     */
+    public void generatePseudoLegalMoves(BitboardPosition board, MoveList moves) {
+        moves.clear();
+        int us = board.getSideToMoveIndex();
+        long own = board.getOccupancy(us);
+        int king = board.getKingSquare(us);
+        generatePieceMoves(board, moves, us, ~own, 0L, king, false, ALL_MOVES, -1L);
+        addMoves(moves, Piece.KING, king, Bitboards.kingAttacks(king) & ~own, board.getOccupancy(us ^ 1));
+        addCastlingMoves(board, moves, us, king, board.getOccupancy());
+    }
+
+    /**
+     * Add the pawn, knight, bishop, rook and queen moves
+     * 
+     * @param targets the squares pieces may move to (pawn pushes included)
+     * @param pinned  the pieces that may only move along their line to the king
+     * @param legal   true if en passant captures have to be tested for legality
+     * @param stages  the kinds of moves to add
+     * @param sources the squares of the pieces to add moves for
+     */
+    private static void generatePieceMoves(BitboardPosition board, MoveList moves, int us, long targets,
+            long pinned, int king, boolean legal, int stages, long sources) {
+        long enemy = board.getOccupancy(us ^ 1);
+        long occupied = board.getOccupancy();
+
+        addPawnMoves(board, moves, us, targets, pinned, king, legal, stages, sources);
+        targets &= stageTargets(stages, enemy, occupied);
+        // a pinned knight can never stay on the line to its king
+        long knights = board.getBitboard(us, Piece.KNIGHT) & ~pinned & sources;
+        for (long pieces = knights; pieces != 0; pieces &= pieces - 1) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            addMoves(moves, Piece.KNIGHT, from, Bitboards.knightAttacks(from) & targets, enemy);
+        }
+        for (Piece piece : SLIDING_PIECES) {
+            for (long pieces = board.getBitboard(us, piece) & sources; pieces != 0; pieces &= pieces - 1) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                long destinations = slidingAttacks(piece, from, occupied) & targets;
+                if ((pinned & (1L << from)) != 0) {
+                    destinations &= Bitboards.line(king, from);
+                }
+                addMoves(moves, piece, from, destinations, enemy);
+            }
+        }
+    }
+
+    /**
+     * Get the pieces of the given color that are the only piece between their
+     * king and an opponent bishop, rook or queen
+     */
+    private static long pinnedPieces(BitboardPosition board, int us, int king, long own, long occupied) {
+        int them = us ^ 1;
+        long enemy = board.getOccupancy(them);
+        long queens = board.getBitboard(them, Piece.QUEEN);
+        // sliders that would attack the king if none of our pieces were in the way
+        // @formatter:off
+        long snipers = (MagicBitboards.bishopAttacks(king, enemy) & (board.getBitboard(them, Piece.BISHOP) | queens))
+                | (MagicBitboards.rookAttacks(king, enemy) & (board.getBitboard(them, Piece.ROOK) | queens));
+        // @formatter:on
+        long pinned = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long blockers = Bitboards.between(king, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if ((blockers & (blockers - 1)) == 0) {
+                pinned |= blockers & own;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * Returns true if the move would leave the mover's king attacked. The
+     * position is not changed: the attacks are computed on the occupancy after
+     * the move with the captured piece removed.
+     * 
+     * @param board
+     * @param move
+     * @return
+     */
+    private static boolean leavesKingInCheck(BitboardPosition board, int move) {
+        int us = board.getSideToMoveIndex();
+        int them = us ^ 1;
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long captured = 1L << to;
+        if (Move.isEnPassant(move)) {
+            captured = us == BitboardPosition.WHITE ? captured >>> 8 : captured << 8;
+        }
+        long occupied = (board.getOccupancy() & ~(1L << from) & ~captured) | (1L << to);
+        int king = Move.pieceIndex(move) == Piece.KING.ordinal() ? to : board.getKingSquare(us);
+        return (board.getAttackers(king, them, occupied) & ~captured) != 0;
+    }
+
+    private static void addMoves(MoveList moves, Piece piece, int from, long destinations, long enemy) {
+        for (long bits = destinations; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            moves.add(Move.of(from, to, piece, (enemy & (1L << to)) != 0 ? Move.CAPTURE : 0));
+        }
+    }
+
+    private static void addPawnMoves(BitboardPosition board, MoveList moves, int us, long targets, long pinned,
+            int king, boolean legal, int stages, long sources) {
+        long pawns = board.getBitboard(us, Piece.PAWN) & sources;
+        long enemy = board.getOccupancy(us ^ 1);
+        long empty = ~board.getOccupancy();
+        long singlePushes;
+        long doublePushes;
+        long leftCaptures;
+        long rightCaptures;
+        int forward;
+        long promotionRank;
+        if (us == BitboardPosition.WHITE) {
+            forward = 8;
+            promotionRank = Bitboards.RANK_8;
+            singlePushes = (pawns << 8) & empty;
+            doublePushes = ((singlePushes & Bitboards.RANK_3) << 8) & empty;
+            leftCaptures = ((pawns & ~Bitboards.FILE_A) << 7) & enemy;
+            rightCaptures = ((pawns & ~Bitboards.FILE_H) << 9) & enemy;
+        } else {
+            forward = -8;
+            promotionRank = Bitboards.RANK_1;
+            singlePushes = (pawns >>> 8) & empty;
+            doublePushes = ((singlePushes & Bitboards.RANK_6) >>> 8) & empty;
+            leftCaptures = ((pawns & ~Bitboards.FILE_A) >>> 9) & enemy;
+            rightCaptures = ((pawns & ~Bitboards.FILE_H) >>> 7) & enemy;
+        }
+        // promotions are generated with the captures
+        long pushes = ((stages & CAPTURES) != 0 ? promotionRank : 0L) | ((stages & QUIETS) != 0 ? ~promotionRank : 0L);
+        addPawnMoves(moves, singlePushes & pushes & targets, forward, promotionRank, 0, pinned, king);
+        if ((stages & CAPTURES) != 0) {
+            addPawnMoves(moves, leftCaptures & targets, forward - 1, promotionRank, Move.CAPTURE, pinned, king);
+            addPawnMoves(moves, rightCaptures & targets, forward + 1, promotionRank, Move.CAPTURE, pinned, king);
+        }
+        if ((stages & QUIETS) != 0) {
+            addPawnMoves(moves, doublePushes & targets, 2 * forward, 0L, Move.DOUBLE_PUSH, pinned, king);
+        }
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != BitboardPosition.NO_SQUARE && (stages & CAPTURES) != 0) {
+            for (long bits = Bitboards.pawnAttacks(us ^ 1, enPassant) & pawns; bits != 0; bits &= bits - 1) {
+                int move = Move.of(Long.numberOfTrailingZeros(bits), enPassant, Piece.PAWN,
+                        Move.EN_PASSANT | Move.CAPTURE);
+                // removing two pawns from a rank can expose the king, so test the
+                // resulting position directly
+                if (!legal || !leavesKingInCheck(board, move)) {
+                    moves.add(move);
+                }
+            }
+        }
+    }
+
+    private static void addPawnMoves(MoveList moves, long destinations, int offset, long promotionRank, int flags,
+            long pinned, int king) {
+        for (long bits = destinations; bits != 0; bits &= bits - 1) {
+            int to = Long.numberOfTrailingZeros(bits);
+            int from = to - offset;
+            if ((pinned & (1L << from)) != 0 && (Bitboards.line(king, from) & (1L << to)) == 0) {
+                continue;
+            }
+            if ((promotionRank & (1L << to)) != 0) {
+                moves.add(Move.of(from, to, Piece.PAWN, Piece.QUEEN, flags));
+                moves.add(Move.of(from, to, Piece.PAWN, Piece.KNIGHT, flags));
+                moves.add(Move.of(from, to, Piece.PAWN, Piece.ROOK, flags));
+                moves.add(Move.of(from, to, Piece.PAWN, Piece.BISHOP, flags));
+            } else {
+                moves.add(Move.of(from, to, Piece.PAWN, flags));
+            }
+        }
+    }
+
+    private static void addCastlingMoves(BitboardPosition board, MoveList moves, int us, int king,
+            long occupied) {
+        int rights = board.getCastlingRights();
+        // @formatter:off
+        int kingSide = us == BitboardPosition.WHITE ? BitboardPosition.WHITE_KING_SIDE : BitboardPosition.BLACK_KING_SIDE;
+        int queenSide = us == BitboardPosition.WHITE ? BitboardPosition.WHITE_QUEEN_SIDE : BitboardPosition.BLACK_QUEEN_SIDE;
+        // @formatter:on
+        if ((rights & (kingSide | queenSide)) == 0 || board.isAttacked(king, us ^ 1)) {
+            return;
+        }
+        // squares between the king and the rook must be empty and the king may
+        // not pass through an attacked square
+        if ((rights & kingSide) != 0 && (occupied & (3L << (king + 1))) == 0
+                && !board.isAttacked(king + 1, us ^ 1) && !board.isAttacked(king + 2, us ^ 1)) {
+            moves.add(Move.of(king, king + 2, Piece.KING, Move.CASTLE));
+        }
+        if ((rights & queenSide) != 0 && (occupied & (7L << (king - 3))) == 0
+                && !board.isAttacked(king - 1, us ^ 1) && !board.isAttacked(king - 2, us ^ 1)) {
+            moves.add(Move.of(king, king - 2, Piece.KING, Move.CASTLE));
+        }
+    }
+
     private static Map<Position, Collection<ChessMove>> generateAllPawnAdvances() {
         var pawnAdvances = new EnumMap<Position, Collection<ChessMove>>(Position.class);
 
@@ -0,0 +1,185 @@
+package com.github.slfotg.chess.move;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+/**
+ * ChessMove view of a move encoded with {@link Move}, for callers that need
+ * the object API. Positions are real board positions for either color, so the
+ * move is applied to a board that holds White's pieces as the current pieces
+ * (see {@link com.github.slfotg.chess.GameState#getBoard()}).
+ */
+@AllArgsConstructor
+@EqualsAndHashCode
+public final class EncodedChessMove implements ChessMove {
+
+    private final int move;
+    private final Color color;
+
+    /**
+     * Returns the encoded move (see {@link Move})
+     *
+     * @return
+     */
+    public int getMove() {
+        return move;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public Piece getPiece() {
+        return Move.piece(move);
+    }
+
+    @Override
+    public Piece getFinalPiece() {
+        return Move.isPromotion(move) ? Move.promotion(move) : Move.piece(move);
+    }
+
+    @Override
+    public Position getStartingPosition() {
+        return Position.fromIndex(Move.from(move));
+    }
+
+    @Override
+    public Position getFinalPosition() {
+        return Position.fromIndex(Move.to(move));
+    }
+
+    @Override
+    public Position[] getPath() {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int fileStep = Integer.signum((to & 7) - (from & 7));
+        int rankStep = Integer.signum((to >>> 3) - (from >>> 3));
+        boolean straightOrDiagonal = fileStep == 0 || rankStep == 0
+                || Math.abs((to & 7) - (from & 7)) == Math.abs((to >>> 3) - (from >>> 3));
+        if (!straightOrDiagonal) {
+            // knight moves
+            return new Position[] { Position.fromIndex(from), Position.fromIndex(to) };
+        }
+        int step = rankStep * 8 + fileStep;
+        Position[] path = new Position[Math.abs(to - from) / Math.abs(step) + 1];
+        for (int i = 0; i < path.length; i += 1) {
+            path[i] = Position.fromIndex(from + i * step);
+        }
+        return path;
+    }
+
+    private int capturedSquare() {
+        int to = Move.to(move);
+        if (Move.isEnPassant(move)) {
+            return color == Color.WHITE ? to - 8 : to + 8;
+        }
+        return to;
+    }
+
+    @Override
+    public Board applyMove(Board currentBoard) {
+        Position from = getStartingPosition();
+        Position to = getFinalPosition();
+        if (Move.isCastle(move)) {
+            boolean kingSide = Move.to(move) > Move.from(move);
+            Position rookFrom = Position.fromIndex(kingSide ? Move.to(move) + 1 : Move.to(move) - 2);
+            Position rookTo = Position.fromIndex(kingSide ? Move.to(move) - 1 : Move.to(move) + 1);
+            return move(move(currentBoard, Piece.KING, from, to, Piece.KING, null), Piece.ROOK, rookFrom, rookTo,
+                    Piece.ROOK, null);
+        }
+        Position captured = Move.isCapture(move) ? Position.fromIndex(capturedSquare()) : null;
+        return move(currentBoard, getPiece(), from, to, getFinalPiece(), captured);
+    }
+
+    private Board move(Board board, Piece piece, Position from, Position to, Piece finalPiece, Position captured) {
+        if (color == Color.WHITE) {
+            return board.move(piece, from, to, finalPiece, captured);
+        }
+        return board.moveOpponent(piece, from, to, finalPiece, captured);
+    }
+
+    @Override
+    public CastlingRights updateCastlingRights(CastlingRights currentPlayerRights) {
+        if (getPiece() == Piece.KING) {
+            return CastlingRights.NONE;
+        }
+        return removeRookRights(currentPlayerRights, Move.from(move), color);
+    }
+
+    @Override
+    public CastlingRights updateOpponentCastlingRights(CastlingRights opponentRights) {
+        if (!Move.isCapture(move)) {
+            return opponentRights;
+        }
+        return removeRookRights(opponentRights, Move.to(move), color == Color.WHITE ? Color.BLACK : Color.WHITE);
+    }
+
+    private static CastlingRights removeRookRights(CastlingRights rights, int square, Color rookColor) {
+        int homeRank = rookColor == Color.WHITE ? 0 : 56;
+        if (square == homeRank) {
+            return rights.removeQueenSideRights();
+        }
+        if (square == homeRank + 7) {
+            return rights.removeKingSideRights();
+        }
+        return rights;
+    }
+
+    @Override
+    public boolean isAttackingMove() {
+        return !Move.isCastle(move) && (getPiece() != Piece.PAWN || Move.isCapture(move));
+    }
+
+    @Override
+    public boolean isPawnMove() {
+        return getPiece() == Piece.PAWN;
+    }
+
+    @Override
+    public boolean isCapture(Board currentBoard) {
+        return Move.isCapture(move);
+    }
+
+    @Override
+    public Optional<List<Position>> getCastlingPositions() {
+        if (Move.isCastle(move)) {
+            return Optional.of(Arrays.asList(getPath()));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Position> enPassantPosition() {
+        if (Move.isDoublePush(move)) {
+            return Optional.of(Position.fromIndex((Move.from(move) + Move.to(move)) / 2));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Position> getAttackedPosition() {
+        if (isAttackingMove()) {
+            return Optional.of(Position.fromIndex(capturedSquare()));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String toString() {
+        if (Move.isCastle(move)) {
+            return Move.to(move) > Move.from(move) ? "0-0" : "0-0-0";
+        }
+        return stringValue();
+    }
+}
@@ -1,9 +1,7 @@
 package com.github.slfotg.chess.move;
 
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import com.github.slfotg.chess.Board;
@@ -30,18 +28,10 @@ class KingSideCastle implements ChessMove {
     @Override
     public Board applyMove(Board currentBoard) {
         // @formatter:off
-        Map<Position, Piece> currentPieces =
-                currentBoard.getCurrentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getCurrentPieces());
-        Map<Position, Piece> opponentPieces =
-                currentBoard.getOpponentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getOpponentPieces());
+        return currentBoard
+                .move(Piece.KING, Position.E1, Position.G1, Piece.KING, null)
+                .move(Piece.ROOK, Position.H1, Position.F1, Piece.ROOK, null);
         // @formatter:on
-        currentPieces.remove(Position.H1);
-        currentPieces.put(Position.F1, Piece.ROOK);
-        return new Board(currentPieces, opponentPieces, Position.G1, currentBoard.getOpponentKingPosition());
     }
 
     @Override
@@ -0,0 +1,146 @@
+package com.github.slfotg.chess.move;
+
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+
+/**
+ * Moves packed into a single int so they can be generated, stored and applied
+ * without allocating objects.
+ *
+ * <pre>
+ * bits  0-5   starting square index
+ * bits  6-11  final square index
+ * bits 12-14  moving piece (Piece ordinal)
+ * bits 15-17  promotion piece (Piece ordinal, 0 when not a promotion)
+ * bits 18-21  flags
+ * </pre>
+ *
+ * Castling is encoded as a king move of two squares.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 18;
+    public static final int DOUBLE_PUSH = 1 << 19;
+    public static final int EN_PASSANT = 1 << 20;
+    public static final int CASTLE = 1 << 21;
+
+    private static final Piece[] PIECES = Piece.values();
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, Piece piece) {
+        return of(from, to, piece, null, 0);
+    }
+
+    public static int of(int from, int to, Piece piece, int flags) {
+        return of(from, to, piece, null, flags);
+    }
+
+    public static int of(int from, int to, Piece piece, Piece promotion, int flags) {
+        int promotionIndex = promotion == null ? 0 : promotion.ordinal();
+        return from | (to << 6) | (piece.ordinal() << 12) | (promotionIndex << 15) | flags;
+    }
+
+    /**
+     * Encode a move given as a ChessMove (castling moves must use the real
+     * starting position of the king)
+     * 
+     * @param chessMove the move in board coordinates
+     * @param occupied  the occupancy of the board before the move
+     * @return the encoded move
+     */
+    public static int encode(ChessMove chessMove, long occupied) {
+        if (chessMove instanceof EncodedChessMove) {
+            return ((EncodedChessMove) chessMove).getMove();
+        }
+        int from = chessMove.getStartingPosition().getIndex();
+        int to = chessMove.getFinalPosition().getIndex();
+        Piece piece = chessMove.getPiece();
+        if (chessMove.getCastlingPositions().isPresent()) {
+            return of(from, to > from ? from + 2 : from - 2, piece, CASTLE);
+        }
+        int flags = 0;
+        if ((occupied & (1L << to)) != 0) {
+            flags |= CAPTURE;
+        }
+        if (chessMove.getAttackedPosition().map(position -> position.getIndex() != to).orElse(false)) {
+            flags |= EN_PASSANT | CAPTURE;
+        }
+        if (chessMove.enPassantPosition().isPresent()) {
+            flags |= DOUBLE_PUSH;
+        }
+        Piece finalPiece = chessMove.getFinalPiece();
+        return of(from, to, piece, finalPiece == piece ? null : finalPiece, flags);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int pieceIndex(int move) {
+        return (move >>> 12) & 0x7;
+    }
+
+    public static Piece piece(int move) {
+        return PIECES[pieceIndex(move)];
+    }
+
+    public static int promotionIndex(int move) {
+        return (move >>> 15) & 0x7;
+    }
+
+    /**
+     * Returns the piece a pawn is promoted to or null if the move is not a
+     * promotion
+     * 
+     * @param move
+     * @return
+     */
+    public static Piece promotion(int move) {
+        int promotion = promotionIndex(move);
+        return promotion == 0 ? null : PIECES[promotion];
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotionIndex(move) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    /**
+     * Returns the move in coordinate notation (e.g. e2e4 or e7e8q)
+     * 
+     * @param move
+     * @return
+     */
+    public static String toString(int move) {
+        StringBuilder builder = new StringBuilder(5);
+        builder.append(Position.fromIndex(from(move)).name().toLowerCase());
+        builder.append(Position.fromIndex(to(move)).name().toLowerCase());
+        if (isPromotion(move)) {
+            builder.append("pnbrqk".charAt(promotionIndex(move)));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.slfotg.chess.move;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of encoded moves (see {@link Move}). Search and perft keep
+ * one list per ply so move generation does not allocate.
+ */
+public final class MoveList {
+
+    // no chess position has more than 218 legal moves
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        moves[size] = move;
+        size += 1;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drop every move at or after the given index
+     *
+     * @param size the new size of the list
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns a copy of the moves in the list
+     *
+     * @return
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i += 1) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,7 +1,5 @@
 package com.github.slfotg.chess.move;
 
-import java.util.EnumMap;
-import java.util.Map;
 import java.util.Optional;
 
 import com.github.slfotg.chess.Board;
@@ -32,22 +30,14 @@ class PawnAdvance implements ChessMove {
         return path;
     }
 
+    @Override
+    public Piece getFinalPiece() {
+        return finalPiece;
+    }
+
     @Override
     public Board applyMove(Board currentBoard) {
-        // @formatter:off
-        Map<Position, Piece> currentPieces =
-                currentBoard.getCurrentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getCurrentPieces());
-        Map<Position, Piece> opponentPieces =
-                currentBoard.getOpponentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getOpponentPieces());
-        // @formatter:on
-        currentPieces.remove(getStartingPosition());
-        currentPieces.put(getFinalPosition(), finalPiece);
-        return new Board(currentPieces, opponentPieces, currentBoard.getKingPosition(),
-                currentBoard.getOpponentKingPosition());
+        return currentBoard.move(Piece.PAWN, getStartingPosition(), getFinalPosition(), finalPiece, null);
     }
 
     @Override
@@ -1,8 +1,5 @@
 package com.github.slfotg.chess.move;
 
-import java.util.EnumMap;
-import java.util.Map;
-
 import com.github.slfotg.chess.Board;
 import com.github.slfotg.chess.enums.Piece;
 import com.github.slfotg.chess.enums.Position;
@@ -31,23 +28,15 @@ class PawnCapture implements ChessMove {
         return path;
     }
 
+    @Override
+    public Piece getFinalPiece() {
+        return finalPiece;
+    }
+
     @Override
     public Board applyMove(Board currentBoard) {
-        // @formatter:off
-        Map<Position, Piece> currentPieces =
-                currentBoard.getCurrentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getCurrentPieces());
-        Map<Position, Piece> opponentPieces =
-                currentBoard.getOpponentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getOpponentPieces());
-        // @formatter:off
-        currentPieces.remove(getStartingPosition());
-        getAttackedPosition().ifPresent(opponentPieces::remove);
-        currentPieces.put(getFinalPosition(), finalPiece);
-        return new Board(currentPieces, opponentPieces, currentBoard.getKingPosition(),
-                currentBoard.getOpponentKingPosition());
+        return currentBoard.move(Piece.PAWN, getStartingPosition(), getFinalPosition(), finalPiece,
+                getFinalPosition());
     }
 
     @Override
@@ -1,9 +1,7 @@
 package com.github.slfotg.chess.move;
 
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 
 import com.github.slfotg.chess.Board;
@@ -27,19 +25,10 @@ class QueenSideCastle implements ChessMove {
     @Override
     public Board applyMove(Board currentBoard) {
         // @formatter:off
-        Map<Position, Piece> currentPieces =
-                currentBoard.getCurrentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getCurrentPieces());
-        Map<Position, Piece> opponentPieces =
-                currentBoard.getOpponentPieces().isEmpty()
-                ? new EnumMap<>(Position.class)
-                : new EnumMap<>(currentBoard.getOpponentPieces());
-        // @formatter:off
-        currentPieces.remove(Position.A1);
-        currentPieces.put(Position.D1, Piece.ROOK);
-        return new Board(currentPieces, opponentPieces, Position.C1,
-                currentBoard.getOpponentKingPosition());
+        return currentBoard
+                .move(Piece.KING, Position.E1, Position.C1, Piece.KING, null)
+                .move(Piece.ROOK, Position.A1, Position.D1, Piece.ROOK, null);
+        // @formatter:on
     }
 
     @Override
@@ -0,0 +1,176 @@
+package com.github.slfotg.chess.move;
+
+import com.github.slfotg.chess.BitboardPosition;
+import com.github.slfotg.chess.enums.Piece;
+
+/**
+ * Static exchange evaluation: the material a move wins or loses on its final
+ * square once both sides have recaptured there with their least valuable
+ * pieces for as long as it pays off. Sliding pieces behind the capturing
+ * pieces join in as the line opens. Pins and checks are ignored, except that a
+ * king never captures onto a square the opponent still attacks.
+ *
+ * Values are centipawns from the side of the player making the move.
+ */
+public final class StaticExchange {
+
+    private static final int[] PIECE_VALUES = { 100, 300, 300, 500, 900, 10_000 };
+    // every piece on the board can take part in one exchange
+    private static final int MAX_EXCHANGES = 32;
+    // the swap list of evaluate, one per thread so evaluating does not allocate
+    private static final ThreadLocal<int[]> GAINS = ThreadLocal.withInitial(() -> new int[MAX_EXCHANGES]);
+
+    private StaticExchange() {
+    }
+
+    /**
+     * Returns the exchange value of a piece
+     *
+     * @param piece the piece ordinal
+     * @return
+     */
+    public static int value(int piece) {
+        return PIECE_VALUES[piece];
+    }
+
+    /**
+     * Returns the material the side to move wins with the move, assuming both
+     * sides stop recapturing once doing so would lose material
+     *
+     * @param board the position before the move
+     * @param move  a legal move of the side to move
+     * @return
+     */
+    public static int evaluate(BitboardPosition board, int move) {
+        int to = Move.to(move);
+        int side = board.getSideToMoveIndex();
+        long occupied = occupiedAfter(board, move);
+
+        int[] gain = GAINS.get();
+        gain[0] = firstGain(board, move);
+        // the piece standing on the square, which the next capture wins
+        int target = Move.isPromotion(move) ? Move.promotionIndex(move) : Move.pieceIndex(move);
+
+        int depth = 0;
+        while (depth + 1 < MAX_EXCHANGES) {
+            side ^= 1;
+            long attackers = attackers(board, to, occupied);
+            long own = attackers & board.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+            int attacker = leastValuable(board, side, own);
+            if (attacker == Piece.KING.ordinal() && (attackers & ~own) != 0) {
+                break;
+            }
+            depth += 1;
+            gain[depth] = PIECE_VALUES[target] - gain[depth - 1];
+            occupied &= ~Long.lowestOneBit(board.getBitboard(side, attacker) & own);
+            target = attacker;
+        }
+        // either side may stop the exchange instead of recapturing
+        for (; depth > 0; depth -= 1) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    /**
+     * Returns true if the move wins at least the given amount of material. This
+     * is the same as comparing {@link #evaluate(BitboardPosition, int)} with the
+     * threshold, but it stops as soon as the result is decided: often after the
+     * first capture, when it wins enough even if the capturing piece is lost or
+     * too little even if it is not.
+     *
+     * @param board
+     * @param move
+     * @param threshold in centipawns
+     * @return
+     */
+    public static boolean isAtLeast(BitboardPosition board, int move, int threshold) {
+        // balance is what the side to capture next must win back for the result
+        // to change, from that side's point of view
+        int balance = firstGain(board, move) - threshold;
+        if (balance < 0) {
+            return false;
+        }
+        int target = Move.isPromotion(move) ? Move.promotionIndex(move) : Move.pieceIndex(move);
+        balance = PIECE_VALUES[target] - balance;
+        if (balance <= 0) {
+            return true;
+        }
+
+        int to = Move.to(move);
+        int side = board.getSideToMoveIndex();
+        long occupied = occupiedAfter(board, move);
+        // whether the mover's side reaches the threshold if the exchange stops now
+        boolean result = true;
+        while (true) {
+            side ^= 1;
+            long attackers = attackers(board, to, occupied);
+            long own = attackers & board.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+            result = !result;
+            int attacker = leastValuable(board, side, own);
+            if (attacker == Piece.KING.ordinal()) {
+                // the king only captures when nothing can take it back, and then
+                // the exchange ends
+                return (attackers & ~own) != 0 ? !result : result;
+            }
+            balance = PIECE_VALUES[attacker] - balance;
+            if (balance < (result ? 1 : 0)) {
+                break;
+            }
+            occupied &= ~Long.lowestOneBit(board.getBitboard(side, attacker) & own);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the material the move captures, and for a promotion what the pawn
+     * gains by promoting
+     */
+    private static int firstGain(BitboardPosition board, int move) {
+        int gain = 0;
+        if (Move.isEnPassant(move)) {
+            gain = PIECE_VALUES[Piece.PAWN.ordinal()];
+        } else if (Move.isCapture(move)) {
+            gain = PIECE_VALUES[pieceOn(board, board.getSideToMoveIndex() ^ 1, Move.to(move))];
+        }
+        if (Move.isPromotion(move)) {
+            gain += PIECE_VALUES[Move.promotionIndex(move)] - PIECE_VALUES[Piece.PAWN.ordinal()];
+        }
+        return gain;
+    }
+
+    /**
+     * Returns the occupied squares after the move, apart from its final square
+     */
+    private static long occupiedAfter(BitboardPosition board, int move) {
+        long occupied = board.getOccupancy() & ~(1L << Move.from(move));
+        if (Move.isEnPassant(move)) {
+            occupied &= ~(1L << (Move.to(move) ^ 8));
+        }
+        return occupied;
+    }
+
+    private static long attackers(BitboardPosition board, int square, long occupied) {
+        return (board.getAttackers(square, BitboardPosition.WHITE, occupied)
+                | board.getAttackers(square, BitboardPosition.BLACK, occupied)) & occupied;
+    }
+
+    private static int leastValuable(BitboardPosition board, int color, long pieces) {
+        for (int piece = 0; piece < PIECE_VALUES.length; piece += 1) {
+            if ((board.getBitboard(color, piece) & pieces) != 0) {
+                return piece;
+            }
+        }
+        throw new IllegalArgumentException("no piece of the color");
+    }
+
+    private static int pieceOn(BitboardPosition board, int color, int square) {
+        return leastValuable(board, color, 1L << square);
+    }
+}
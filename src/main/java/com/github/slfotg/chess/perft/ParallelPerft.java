@@ -0,0 +1,198 @@
+package com.github.slfotg.chess.perft;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.reader.FenReader;
+
+/**
+ * Perft on a {@link ForkJoinPool}. Every legal move at the root is a task, and
+ * a task whose remaining depth is above the split depth forks one task per
+ * move again. Subtrees at or below the split depth are counted by the worker
+ * thread's own {@link Perft} on its own scratch {@link SearchBoard}, which is
+ * brought to the subtree by replaying the moves from the root.
+ *
+ * All workers may share one {@link PerftTable}, so transpositions found by one
+ * thread are not counted again by another.
+ */
+public final class ParallelPerft implements AutoCloseable {
+
+    public static final int DEFAULT_SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+    private final ThreadLocal<Perft> perfts;
+    private final ThreadLocal<SearchBoard> boards = new ThreadLocal<>();
+    private final ThreadLocal<MoveList> moveLists = ThreadLocal.withInitial(MoveList::new);
+    private final ChessMoveGenerator moveGenerator = new ChessMoveGenerator();
+
+    public ParallelPerft(int threads) {
+        this(threads, DEFAULT_SPLIT_DEPTH, null);
+    }
+
+    /**
+     * @param threads    the parallelism of the pool
+     * @param splitDepth subtrees with at most this many plies left are counted
+     *                   by a single thread
+     * @param table      the counts shared by all threads or null
+     */
+    public ParallelPerft(int threads, int splitDepth, PerftTable table) {
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("split depth must be at least 1");
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.splitDepth = splitDepth;
+        this.perfts = ThreadLocal.withInitial(() -> new Perft(table));
+    }
+
+    /**
+     * Count the leaf nodes of the position
+     *
+     * @param state
+     * @param depth
+     * @return
+     */
+    public long perft(GameState state, int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        return pool.invoke(new PerftTask(state, new int[0], depth));
+    }
+
+    /**
+     * Count the leaf nodes below every legal move, each move in its own task
+     *
+     * @param state
+     * @param depth the depth including the first move (at least 1)
+     * @return the node count of each move keyed by its coordinate notation, in
+     *         generation order
+     */
+    public Map<String, Long> divide(GameState state, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        return pool.invoke(new RecursiveTask<Map<String, Long>>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected Map<String, Long> compute() {
+                int[] moves = legalMoves(state, new int[0]);
+                List<PerftTask> tasks = new ArrayList<>(moves.length);
+                for (int move : moves) {
+                    tasks.add(new PerftTask(state, new int[] { move }, depth - 1));
+                }
+                invokeAll(tasks);
+                Map<String, Long> divide = new LinkedHashMap<>();
+                for (int i = 0; i < moves.length; i += 1) {
+                    divide.put(Move.toString(moves[i]), tasks.get(i).join());
+                }
+                return divide;
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Returns this thread's scratch board set to the position after the moves
+     */
+    private SearchBoard board(GameState root, int[] path) {
+        SearchBoard board = boards.get();
+        if (board == null) {
+            board = new SearchBoard(root);
+            boards.set(board);
+        } else {
+            board.load(root);
+        }
+        for (int move : path) {
+            board.makeMove(move);
+        }
+        return board;
+    }
+
+    private int[] legalMoves(GameState root, int[] path) {
+        MoveList moves = moveLists.get();
+        moveGenerator.generateLegalMoves(board(root, path), moves);
+        return moves.toArray();
+    }
+
+    private final class PerftTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GameState root;
+        // the moves from the root to the subtree
+        private final int[] path;
+        private final int depth;
+
+        PerftTask(GameState root, int[] path, int depth) {
+            this.root = root;
+            this.path = path;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= splitDepth) {
+                return perfts.get().perft(board(root, path), depth);
+            }
+            int[] moves = legalMoves(root, path);
+            List<PerftTask> tasks = new ArrayList<>(moves.length);
+            for (int move : moves) {
+                int[] next = Arrays.copyOf(path, path.length + 1);
+                next[path.length] = move;
+                tasks.add(new PerftTask(root, next, depth - 1));
+            }
+            invokeAll(tasks);
+            long nodes = 0L;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Print the divide of a position, the total node count and the node rate
+     *
+     * @param args the depth (defaults to 6), the number of threads (defaults to
+     *             the number of processors), the size of the shared table in MB
+     *             (0 or missing for none) and the FEN of the position (defaults
+     *             to the initial position)
+     */
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int tableSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        PerftTable table = tableSize > 0 ? new PerftTable(tableSize) : null;
+        GameState gameState = args.length > 3 ? new FenReader().read(args[3]) : ChessGame.newGame().getGameState();
+        try (ParallelPerft perft = new ParallelPerft(threads, DEFAULT_SPLIT_DEPTH, table)) {
+            long start = System.nanoTime();
+            Map<String, Long> divide = perft.divide(gameState, depth);
+            long elapsed = System.nanoTime() - start;
+            long nodes = 0L;
+            for (Map.Entry<String, Long> entry : divide.entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+            System.out.println();
+            System.out.println("Nodes: " + nodes);
+            System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+            System.out.println("Nodes/second: " + (elapsed == 0 ? nodes : nodes * 1_000_000_000L / elapsed));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.slfotg.chess.perft;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.reader.FenReader;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts of
+ * well known positions are used to check the move generator, and the node rate
+ * to measure it.
+ *
+ * {@link #perft(GameState, int)} walks the immutable {@link GameState} API and
+ * is the reference; {@link #perft(SearchBoard, int)} uses make/unmake and
+ * counts the moves of the last ply without playing them, optionally looking up
+ * subtrees in a {@link PerftTable}. {@link ParallelPerft} splits the latter
+ * over several threads.
+ */
+public final class Perft {
+
+    private final ChessMoveGenerator moveGenerator = new ChessMoveGenerator();
+    private final PerftTable table;
+    // one list per remaining depth
+    private MoveList[] moveLists = new MoveList[0];
+
+    public Perft() {
+        this(null);
+    }
+
+    /**
+     * @param table the counts of already seen subtrees (may be shared with other
+     *              threads) or null to count every subtree
+     */
+    public Perft(PerftTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Count the leaf nodes through {@link GameState#nextPossibleStates()}
+     *
+     * @param state
+     * @param depth
+     * @return
+     */
+    public static long perft(GameState state, int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        long nodes = 0L;
+        for (GameState next : state.nextPossibleStates()) {
+            nodes += perft(next, depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes by making and unmaking moves on the board. The board
+     * is left in the position it started in.
+     *
+     * @param board
+     * @param depth
+     * @return
+     */
+    public long perft(SearchBoard board, int depth) {
+        if (depth == 0) {
+            return 1L;
+        }
+        ensureDepth(depth);
+        return count(board, depth);
+    }
+
+    private long count(SearchBoard board, int depth) {
+        if (table != null && depth > 1) {
+            long nodes = table.probe(board.getZobristKey(), depth);
+            if (nodes != PerftTable.NO_ENTRY) {
+                return nodes;
+            }
+        }
+        MoveList moves = moveLists[depth];
+        moveGenerator.generateLegalMoves(board, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0L;
+        for (int i = 0; i < moves.size(); i += 1) {
+            board.makeMove(moves.get(i));
+            nodes += count(board, depth - 1);
+            board.unmakeMove();
+        }
+        if (table != null) {
+            table.store(board.getZobristKey(), depth, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Count the leaf nodes below every legal move
+     *
+     * @param board
+     * @param depth the depth including the first move (at least 1)
+     * @return the node count of each move keyed by its coordinate notation
+     *         (such as "e2e4"), in generation order
+     */
+    public Map<String, Long> divide(SearchBoard board, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("depth must be at least 1");
+        }
+        ensureDepth(depth);
+        MoveList moves = new MoveList();
+        moveGenerator.generateLegalMoves(board, moves);
+        Map<String, Long> divide = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i += 1) {
+            board.makeMove(moves.get(i));
+            divide.put(Move.toString(moves.get(i)), depth == 1 ? 1L : count(board, depth - 1));
+            board.unmakeMove();
+        }
+        return divide;
+    }
+
+    private void ensureDepth(int depth) {
+        if (moveLists.length <= depth) {
+            MoveList[] lists = new MoveList[depth + 1];
+            for (int i = 0; i < lists.length; i += 1) {
+                lists[i] = i < moveLists.length ? moveLists[i] : new MoveList();
+            }
+            moveLists = lists;
+        }
+    }
+
+    /**
+     * Print the divide of a position, the total node count and the node rate
+     *
+     * @param args the depth (defaults to 5) and the FEN of the position
+     *             (defaults to the initial position)
+     */
+    public static void main(String... args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        GameState gameState = args.length > 1 ? new FenReader().read(args[1]) : ChessGame.newGame().getGameState();
+        SearchBoard board = new SearchBoard(gameState);
+        long start = System.nanoTime();
+        Map<String, Long> divide = new Perft().divide(board, depth);
+        long elapsed = System.nanoTime() - start;
+        long nodes = 0L;
+        for (Map.Entry<String, Long> entry : divide.entrySet()) {
+            System.out.println(entry.getKey() + ": " + entry.getValue());
+            nodes += entry.getValue();
+        }
+        System.out.println();
+        System.out.println("Nodes: " + nodes);
+        System.out.println("Time: " + elapsed / 1_000_000 + " ms");
+        System.out.println("Nodes/second: " + (elapsed == 0 ? nodes : nodes * 1_000_000_000L / elapsed));
+    }
+}
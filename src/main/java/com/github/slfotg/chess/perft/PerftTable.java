@@ -0,0 +1,72 @@
+package com.github.slfotg.chess.perft;
+
+import com.github.slfotg.chess.util.LocklessHashTable;
+
+/**
+ * Fixed size hash of (position, depth) to leaf node count that perft threads
+ * share without locks (see {@link LocklessHashTable}).
+ *
+ * <pre>
+ * data bits  0-7   depth
+ *            8-63  node count
+ * </pre>
+ */
+public final class PerftTable {
+
+    public static final int DEFAULT_SIZE_MB = 64;
+
+    /**
+     * Returned by {@link #probe(long, int)} when the position was not counted to
+     * the depth
+     */
+    public static final long NO_ENTRY = -1L;
+
+    private final LocklessHashTable table;
+
+    public PerftTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @param megabytes the size of the table (rounded down to a power of two
+     *                  number of slots)
+     */
+    public PerftTable(int megabytes) {
+        // no count is stored at depth 0, so empty slots never match a probe
+        table = new LocklessHashTable(megabytes, 0L);
+    }
+
+    /**
+     * Look up the node count of a position
+     *
+     * @param key   the Zobrist key of the position
+     * @param depth
+     * @return the node count or NO_ENTRY
+     */
+    public long probe(long key, int depth) {
+        long data = table.read(key, 0L);
+        if ((data & 0xFF) != depth || data == 0L) {
+            return NO_ENTRY;
+        }
+        return data >>> 8;
+    }
+
+    /**
+     * Store the node count of a position. Deeper counts took longer to compute,
+     * so they are only replaced by counts at least as deep.
+     *
+     * @param key   the Zobrist key of the position
+     * @param depth
+     * @param nodes
+     */
+    public void store(long key, int depth, long nodes) {
+        if ((table.data(table.slot(key)) & 0xFF) > depth) {
+            return;
+        }
+        table.write(key, (nodes << 8) | depth);
+    }
+
+    public void clear() {
+        table.clear();
+    }
+}
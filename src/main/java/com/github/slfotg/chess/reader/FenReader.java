@@ -0,0 +1,315 @@
+package com.github.slfotg.chess.reader;
+
+import java.nio.ByteBuffer;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+
+/**
+ * Reads game states in Forsyth-Edwards Notation, such as
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+ *
+ * Fields are separated by one or more spaces. The halfmove clock and the
+ * fullmove number may be left out, as in EPD records, and default to 0 and 1.
+ *
+ * Characters are read one at a time from the text or the buffer, with no
+ * regular expressions or intermediate strings, so the only objects created for
+ * a position are the game state and its board. A reader keeps its scratch
+ * space between calls, so each thread needs its own.
+ */
+public class FenReader {
+
+    private static final int PIECE_COUNT = 6;
+    // indexed by castling bits of one side, king side 1 and queen side 2
+    private static final CastlingRights[] CASTLING_RIGHTS = CastlingRights.values();
+
+    private final long[] whiteBitboards = new long[PIECE_COUNT];
+    private final long[] blackBitboards = new long[PIECE_COUNT];
+
+    // the text being read, either a CharSequence or a ByteBuffer
+    private CharSequence chars;
+    private ByteBuffer bytes;
+    private int index;
+    private int end;
+    // the index of the first character of the line, for error messages
+    private int start;
+
+    /**
+     * Read a game state
+     *
+     * @param fen
+     * @return
+     * @throws IllegalArgumentException if the text is not a valid position
+     */
+    public GameState read(CharSequence fen) {
+        chars = fen;
+        index = 0;
+        start = 0;
+        end = fen.length();
+        try {
+            return read();
+        } finally {
+            chars = null;
+        }
+    }
+
+    /**
+     * Read one game state of ASCII text from the buffer's position up to the
+     * end of the line or the buffer's limit. The buffer's position is moved past
+     * the line, even if it is not valid, so a buffer of records one per line can
+     * be read in a loop while it has remaining bytes.
+     *
+     * @param buffer
+     * @return
+     * @throws IllegalArgumentException if the line is not a valid position
+     */
+    public GameState read(ByteBuffer buffer) {
+        bytes = buffer;
+        index = buffer.position();
+        start = index;
+        end = buffer.limit();
+        for (int i = index; i < end; i += 1) {
+            byte b = buffer.get(i);
+            if (b == '\n' || b == '\r') {
+                end = i;
+                break;
+            }
+        }
+        try {
+            return read();
+        } finally {
+            // skip the line terminator, \n or \r\n
+            int next = end;
+            if (next < buffer.limit() && buffer.get(next) == '\r') {
+                next += 1;
+            }
+            if (next < buffer.limit() && buffer.get(next) == '\n') {
+                next += 1;
+            }
+            buffer.position(next);
+            bytes = null;
+        }
+    }
+
+    private GameState read() {
+        skipSpaces();
+        readPieces();
+        Color activeColor = readActiveColor();
+        int castling = readCastling();
+        Position enPassant = readEnPassant(activeColor);
+        int halfMoveClock = 0;
+        int fullMoveNumber = 1;
+        if (index < end) {
+            expectSpace();
+            if (index < end) {
+                halfMoveClock = readNumber();
+                expectSpace();
+                fullMoveNumber = readNumber();
+                skipSpaces();
+            }
+        }
+        if (index < end) {
+            throw error("unexpected text after the fullmove number");
+        }
+
+        CastlingRights whiteRights = CASTLING_RIGHTS[castling & 3];
+        CastlingRights blackRights = CASTLING_RIGHTS[castling >>> 2];
+        boolean whiteToMove = activeColor == Color.WHITE;
+        // @formatter:off
+        return GameState.builder()
+                .activeColor(activeColor)
+                .enPassant(enPassant)
+                .halfMoveClock(halfMoveClock)
+                .fullMoveNumber(fullMoveNumber)
+                .board(new Board(whiteBitboards, blackBitboards))
+                .currentPlayerRights(whiteToMove ? whiteRights : blackRights)
+                .opponentRights(whiteToMove ? blackRights : whiteRights)
+                .build();
+        // @formatter:on
+    }
+
+    private void readPieces() {
+        for (int i = 0; i < PIECE_COUNT; i += 1) {
+            whiteBitboards[i] = 0L;
+            blackBitboards[i] = 0L;
+        }
+        int rank = 7;
+        int file = 0;
+        for (; index < end && peek() != ' '; index += 1) {
+            char c = peek();
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw error("wrong number of squares in a rank");
+                }
+                rank -= 1;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw error("too many squares in a rank");
+                }
+            } else {
+                int piece = pieceIndex(Character.toLowerCase(c));
+                if (piece < 0) {
+                    throw error("unknown piece '" + c + "'");
+                }
+                if (file > 7) {
+                    throw error("too many squares in a rank");
+                }
+                long mask = 1L << (rank * 8 + file);
+                if (Character.isUpperCase(c)) {
+                    whiteBitboards[piece] |= mask;
+                } else {
+                    blackBitboards[piece] |= mask;
+                }
+                file += 1;
+            }
+        }
+        if (rank != 0 || file != 8) {
+            throw error("the board must have 8 ranks of 8 squares");
+        }
+        int king = Piece.KING.ordinal();
+        if (Long.bitCount(whiteBitboards[king]) != 1 || Long.bitCount(blackBitboards[king]) != 1) {
+            throw error("each side must have one king");
+        }
+    }
+
+    private Color readActiveColor() {
+        expectSpace();
+        char c = next();
+        if (c == 'w') {
+            return Color.WHITE;
+        }
+        if (c == 'b') {
+            return Color.BLACK;
+        }
+        throw error("the side to move must be 'w' or 'b'");
+    }
+
+    /**
+     * Returns the castling rights as bits: K = 1, Q = 2, k = 4, q = 8. A side
+     * can only have a right while its king and that rook are on their home
+     * squares, or the move generator would castle with pieces that are not there.
+     */
+    private int readCastling() {
+        expectSpace();
+        if (index < end && peek() == '-') {
+            index += 1;
+            return 0;
+        }
+        int bits = 0;
+        for (; index < end && peek() != ' '; index += 1) {
+            int bit = "KQkq".indexOf(peek());
+            if (bit < 0) {
+                throw error("castling rights must be '-' or letters of KQkq");
+            }
+            if (!hasCastlingPieces(bit)) {
+                throw error("castling right '" + peek() + "' needs the king and rook on their home squares");
+            }
+            bits |= 1 << bit;
+        }
+        if (bits == 0) {
+            throw error("missing castling rights");
+        }
+        return bits;
+    }
+
+    /**
+     * Returns true if the king and the rook of a castling right, by its index in
+     * KQkq, are on their home squares
+     */
+    private boolean hasCastlingPieces(int right) {
+        long[] bitboards = right < 2 ? whiteBitboards : blackBitboards;
+        int home = right < 2 ? 0 : 56;
+        int rook = (right & 1) == 0 ? home + 7 : home;
+        return (bitboards[Piece.KING.ordinal()] & (1L << (home + 4))) != 0
+                && (bitboards[Piece.ROOK.ordinal()] & (1L << rook)) != 0;
+    }
+
+    /**
+     * Returns the en passant square, which is behind a pawn the other side just
+     * pushed two squares: on rank 6 when White is to move and rank 3 when Black
+     * is
+     */
+    private Position readEnPassant(Color activeColor) {
+        expectSpace();
+        char file = next();
+        if (file == '-') {
+            return null;
+        }
+        char rank = next();
+        char expectedRank = activeColor == Color.WHITE ? '6' : '3';
+        if (file < 'a' || file > 'h' || rank != expectedRank) {
+            throw error("the en passant square must be '-' or on rank " + expectedRank);
+        }
+        return Position.fromIndex((rank - '1') * 8 + file - 'a');
+    }
+
+    private int readNumber() {
+        int value = 0;
+        int start = index;
+        for (; index < end && peek() >= '0' && peek() <= '9'; index += 1) {
+            if (value > (Integer.MAX_VALUE - 9) / 10) {
+                throw error("number too large");
+            }
+            value = value * 10 + peek() - '0';
+        }
+        if (index == start) {
+            throw error("expected a number");
+        }
+        return value;
+    }
+
+    private static int pieceIndex(char lowerCase) {
+        switch (lowerCase) {
+        case 'p':
+            return Piece.PAWN.ordinal();
+        case 'n':
+            return Piece.KNIGHT.ordinal();
+        case 'b':
+            return Piece.BISHOP.ordinal();
+        case 'r':
+            return Piece.ROOK.ordinal();
+        case 'q':
+            return Piece.QUEEN.ordinal();
+        case 'k':
+            return Piece.KING.ordinal();
+        default:
+            return -1;
+        }
+    }
+
+    private void expectSpace() {
+        if (index >= end || peek() != ' ') {
+            throw error("missing field");
+        }
+        skipSpaces();
+    }
+
+    private void skipSpaces() {
+        while (index < end && peek() == ' ') {
+            index += 1;
+        }
+    }
+
+    private char peek() {
+        return chars != null ? chars.charAt(index) : (char) (bytes.get(index) & 0xFF);
+    }
+
+    private char next() {
+        if (index >= end) {
+            throw error("missing field");
+        }
+        char c = peek();
+        index += 1;
+        return c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("invalid FEN at index " + (index - start) + ": " + message);
+    }
+}
@@ -0,0 +1,387 @@
+package com.github.slfotg.chess.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.evaluate.BoardEvaluationFunction;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.EncodedChessMove;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+
+/**
+ * Principal variation search (negamax with alpha-beta pruning) with iterative
+ * deepening. Results are kept in a {@link TranspositionTable}, whose best moves
+ * are searched first and whose bounds cut off nodes outside the principal
+ * variation. Moves are picked in stages by a {@link MovePicker}, so quiet moves
+ * are only generated when no capture cuts the node off, and quiet moves are
+ * ordered by the {@link MoveOrdering} the search keeps between searches. At
+ * the horizon a quiescence search plays out the captures that do not lose
+ * material, so positions are only evaluated once they are quiet.
+ *
+ * Scores are centipawns from the side of the player to move. An instance keeps
+ * per-ply buffers and must only be used by one thread at a time, but several
+ * instances may share one table.
+ */
+public class AlphaBetaSearch {
+
+    public static final int MAX_PLY = 64;
+    public static final int INFINITY = 1_000_000;
+    /**
+     * Score of being mated at the root; a mate found n plies from the root scores
+     * MATE - n
+     */
+    public static final int MATE = 100_000;
+
+    // the clock is checked once every this many nodes (plus one)
+    private static final int TIME_CHECK_MASK = 2047;
+
+    private final BoardEvaluationFunction evaluationFunction;
+    private final TranspositionTable transpositionTable;
+    private final ChessMoveGenerator moveGenerator = new ChessMoveGenerator();
+    private final MovePicker[] movePickers = new MovePicker[MAX_PLY + 1];
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    // the quiet moves searched so far at each ply
+    private final int[][] quietsSearched = new int[MAX_PLY + 1][MoveList.DEFAULT_CAPACITY];
+    // triangular principal variation table
+    private final int[][] principalVariation = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] principalVariationLength = new int[MAX_PLY + 1];
+
+    private SearchBoard board;
+    private int[] previousVariation = new int[0];
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private volatile boolean stopped;
+
+    public AlphaBetaSearch(BoardEvaluationFunction evaluationFunction) {
+        this(evaluationFunction, new TranspositionTable());
+    }
+
+    public AlphaBetaSearch(BoardEvaluationFunction evaluationFunction, TranspositionTable transpositionTable) {
+        this.evaluationFunction = evaluationFunction;
+        this.transpositionTable = Objects.requireNonNull(transpositionTable);
+        for (int i = 0; i < movePickers.length; i += 1) {
+            movePickers[i] = new MovePicker(moveGenerator);
+        }
+    }
+
+    /**
+     * Search for the best move of the player to move
+     *
+     * @param gameState the position to search (must not be finished)
+     * @param limits    when to stop searching
+     * @return the result of the deepest completed iteration
+     */
+    public SearchResult search(GameState gameState, SearchLimits limits) {
+        return search(new ChessGame(gameState, Collections.emptyList()), limits);
+    }
+
+    /**
+     * Search for the best move of the player to move, scoring repetitions of
+     * positions played earlier in the game as draws
+     *
+     * @param game   the game to search (must not be finished)
+     * @param limits when to stop searching
+     * @return the result of the deepest completed iteration
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        stopped = false;
+        transpositionTable.newSearch();
+        return search(game, limits, 1);
+    }
+
+    /**
+     * Run the iterations from startDepth on. Unlike the public search this does
+     * not clear a previous {@link #stop()}, so a helper of a
+     * {@link ParallelSearch} that is stopped before it starts does not search at
+     * all.
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, int startDepth) {
+        long start = System.nanoTime();
+        board = new SearchBoard(game);
+        nodes = 0L;
+        maxNodes = limits.getMaxNodes();
+        deadline = limits.getMaxTime() == null ? Long.MAX_VALUE : start + limits.getMaxTime().toNanos();
+        previousVariation = new int[0];
+        moveOrdering.newSearch();
+
+        MoveList rootMoves = new MoveList();
+        moveGenerator.generateLegalMoves(board, rootMoves);
+        if (rootMoves.isEmpty()) {
+            throw new IllegalArgumentException("there are no legal moves to search");
+        }
+        SearchResult result = null;
+        int maxDepth = Math.min(limits.getMaxDepth(), MAX_PLY);
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth += 1) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            previousVariation = Arrays.copyOf(principalVariation[0], principalVariationLength[0]);
+            result = toResult(score, depth, start);
+            // a shorter mate can not be found by searching deeper
+            if (Math.abs(score) >= MATE - depth) {
+                break;
+            }
+        }
+        if (result == null) {
+            // not even the first iteration finished: play any legal move
+            previousVariation = new int[] { rootMoves.get(0) };
+            result = toResult(0, 0, start);
+        }
+        return result;
+    }
+
+    /**
+     * Stop a search running in another thread. The search returns the result of
+     * its last completed iteration.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    void clearStop() {
+        stopped = false;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    public MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    private SearchResult toResult(int score, int depth, long start) {
+        List<ChessMove> variation = new ArrayList<>(previousVariation.length);
+        Color color = board.getSideToMove();
+        for (int move : previousVariation) {
+            variation.add(new EncodedChessMove(move, color));
+            color = color == Color.WHITE ? Color.BLACK : Color.WHITE;
+        }
+        // @formatter:off
+        return SearchResult.builder()
+                .bestMove(variation.get(0))
+                .score(score)
+                .depth(depth)
+                .nodes(nodes)
+                .cutoffs(moveOrdering.getCutoffs())
+                .firstMoveCutoffs(moveOrdering.getFirstMoveCutoffs())
+                .elapsed(Duration.ofNanos(System.nanoTime() - start))
+                .principalVariation(variation)
+                .build();
+        // @formatter:on
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (depth == 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        principalVariationLength[ply] = ply;
+        nodes += 1;
+        if (nodes >= maxNodes || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply > 0 && isDraw()) {
+            return 0;
+        }
+        if (ply == MAX_PLY) {
+            return evaluate();
+        }
+
+        long key = board.getZobristKey();
+        boolean principalNode = beta - alpha > 1;
+        long entry = transpositionTable.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != TranspositionTable.NO_ENTRY && !principalNode && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                    || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                return score;
+            }
+        }
+
+        MovePicker movePicker = movePickers[ply];
+        movePicker.init(board, hashMove, moveOrdering, ply);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        int searched = 0;
+        int quietCount = 0;
+        for (int move = movePicker.next(); move != Move.NONE; move = movePicker.next()) {
+            board.makeMove(move);
+            int score;
+            if (searched == 0) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                // prove the move is worse with a null window, search it fully if not
+                score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            board.unmakeMove();
+            searched += 1;
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        moveOrdering.recordCutoff(searched == 1);
+                        if (MovePicker.isQuiet(move)) {
+                            moveOrdering.updateQuiet(board, ply, depth, move, quietsSearched[ply], quietCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (MovePicker.isQuiet(move)) {
+                quietsSearched[ply][quietCount] = move;
+                quietCount += 1;
+            }
+        }
+        if (searched == 0) {
+            return board.isInCheck() ? -MATE + ply : 0;
+        }
+
+        int bound;
+        if (bestScore >= beta) {
+            bound = TranspositionTable.LOWER_BOUND;
+        } else if (bestScore > originalAlpha) {
+            bound = TranspositionTable.EXACT;
+        } else {
+            // no move raised alpha, so none of them is known to be best
+            bound = TranspositionTable.UPPER_BOUND;
+            bestMove = Move.NONE;
+        }
+        transpositionTable.store(key, bestMove, depth, bound, toTable(bestScore, ply));
+        return bestScore;
+    }
+
+    /**
+     * Search the captures of the position until it is quiet. The side to move
+     * may stand pat on the static evaluation instead of capturing, unless it is
+     * in check, in which case every evasion is searched.
+     */
+    private int quiescence(int ply, int alpha, int beta) {
+        principalVariationLength[ply] = ply;
+        nodes += 1;
+        if (nodes >= maxNodes || ((nodes & TIME_CHECK_MASK) == 0 && System.nanoTime() >= deadline)) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply > 0 && isDraw()) {
+            return 0;
+        }
+        if (ply == MAX_PLY) {
+            return evaluate();
+        }
+
+        boolean inCheck = board.isInCheck();
+        MovePicker movePicker = movePickers[ply];
+        int bestScore;
+        if (inCheck) {
+            bestScore = -INFINITY;
+            movePicker.init(board, Move.NONE, Move.NONE, Move.NONE);
+        } else {
+            bestScore = evaluate();
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+            movePicker.initCaptures(board);
+        }
+
+        for (int move = movePicker.next(); move != Move.NONE; move = movePicker.next()) {
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (inCheck && bestScore == -INFINITY) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Mate scores are stored relative to the position they are stored for rather
+     * than to the root, so they stay correct when reached at another ply
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] variation = principalVariation[ply];
+        variation[ply] = move;
+        int length = principalVariationLength[ply + 1];
+        System.arraycopy(principalVariation[ply + 1], ply + 1, variation, ply + 1, length - ply - 1);
+        principalVariationLength[ply] = length;
+    }
+
+    /**
+     * Returns true for a repetition of a position of the game or the searched
+     * line or when the half move clock ends the game (as in
+     * {@link GameState#getResult()})
+     */
+    private boolean isDraw() {
+        return board.getHalfMoveClock() >= 50 || board.isRepetition(2);
+    }
+
+    private int evaluate() {
+        int score = evaluationFunction.evaluateCentipawns(board);
+        return board.getSideToMoveIndex() == SearchBoard.WHITE ? score : -score;
+    }
+}
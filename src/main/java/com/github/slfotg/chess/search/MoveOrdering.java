@@ -0,0 +1,164 @@
+package com.github.slfotg.chess.search;
+
+import java.util.Arrays;
+
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.move.Move;
+
+/**
+ * What a search has learned about quiet moves, used by the {@link MovePicker}
+ * to order them:
+ *
+ * <ul>
+ * <li>two killer moves per ply, the last quiet moves that caused a cutoff at
+ * that ply</li>
+ * <li>a butterfly history table, scoring quiet moves by color, starting square
+ * and final square by how often they caused cutoffs</li>
+ * <li>a countermove table, the quiet move that last refuted a move given by its
+ * piece and final square</li>
+ * </ul>
+ *
+ * All tables are flat primitive arrays allocated once and reused by every
+ * search of an {@link AlphaBetaSearch}. Cutoffs are counted, so the share of
+ * cutoffs caused by the first move searched shows how well moves are ordered.
+ */
+public final class MoveOrdering {
+
+    // history scores stay within plus or minus this bound
+    static final int MAX_HISTORY = 1 << 14;
+
+    private static final int KILLERS = 2;
+
+    private final int[] killers = new int[(AlphaBetaSearch.MAX_PLY + 1) * KILLERS];
+    // indexed by (color * 64 + from) * 64 + to
+    private final int[] history = new int[2 * 64 * 64];
+    // indexed by the color, piece and final square of the refuted move
+    private final int[] counterMoves = new int[2 * 6 * 64];
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Prepare for a new search: killers belong to the positions of the last
+     * search and are dropped, history is halved so recent searches count most
+     * and the cutoff counts start over
+     */
+    public void newSearch() {
+        Arrays.fill(killers, Move.NONE);
+        for (int i = 0; i < history.length; i += 1) {
+            history[i] /= 2;
+        }
+        cutoffs = 0L;
+        firstMoveCutoffs = 0L;
+    }
+
+    /**
+     * Forget everything, as for a new game
+     */
+    public void clear() {
+        Arrays.fill(killers, Move.NONE);
+        Arrays.fill(history, 0);
+        Arrays.fill(counterMoves, Move.NONE);
+        cutoffs = 0L;
+        firstMoveCutoffs = 0L;
+    }
+
+    public int getFirstKiller(int ply) {
+        return killers[ply * KILLERS];
+    }
+
+    public int getSecondKiller(int ply) {
+        return killers[ply * KILLERS + 1];
+    }
+
+    /**
+     * Returns the quiet move that last refuted the board's last move or
+     * {@link Move#NONE}
+     *
+     * @param board
+     * @return
+     */
+    public int getCounterMove(SearchBoard board) {
+        int lastMove = board.getLastMove();
+        return lastMove == Move.NONE ? Move.NONE : counterMoves[counterMoveIndex(board, lastMove)];
+    }
+
+    /**
+     * Returns the history score of a quiet move of the given color
+     *
+     * @param color
+     * @param move
+     * @return
+     */
+    public int getHistory(int color, int move) {
+        return history[historyIndex(color, move)];
+    }
+
+    /**
+     * Record a beta cutoff
+     *
+     * @param first true if the move that caused it was the first move searched
+     */
+    public void recordCutoff(boolean first) {
+        cutoffs += 1;
+        if (first) {
+            firstMoveCutoffs += 1;
+        }
+    }
+
+    /**
+     * Learn from a quiet move that caused a beta cutoff. The quiet moves searched
+     * before it failed to, so their history is lowered by as much as the
+     * history of the cutoff move is raised.
+     *
+     * @param board      the position the move was searched in
+     * @param ply
+     * @param depth      the remaining depth, deeper cutoffs weigh more
+     * @param move       the move that caused the cutoff
+     * @param quiets     the quiet moves searched before it
+     * @param quietCount the number of quiet moves searched before it
+     */
+    public void updateQuiet(SearchBoard board, int ply, int depth, int move, int[] quiets, int quietCount) {
+        int index = ply * KILLERS;
+        if (killers[index] != move) {
+            killers[index + 1] = killers[index];
+            killers[index] = move;
+        }
+        int lastMove = board.getLastMove();
+        if (lastMove != Move.NONE) {
+            counterMoves[counterMoveIndex(board, lastMove)] = move;
+        }
+        int color = board.getSideToMoveIndex();
+        int bonus = Math.min(depth * depth, MAX_HISTORY);
+        addHistory(historyIndex(color, move), bonus);
+        for (int i = 0; i < quietCount; i += 1) {
+            addHistory(historyIndex(color, quiets[i]), -bonus);
+        }
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Move the score towards the bound by the bonus, slower the closer it gets,
+     * so the scores never overflow and old results fade
+     */
+    private void addHistory(int index, int bonus) {
+        history[index] += bonus - history[index] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int historyIndex(int color, int move) {
+        return (color * 64 + Move.from(move)) * 64 + Move.to(move);
+    }
+
+    private static int counterMoveIndex(SearchBoard board, int lastMove) {
+        // the last move was played by the opponent of the side to move
+        int color = board.getSideToMoveIndex() ^ 1;
+        return (color * 6 + Move.pieceIndex(lastMove)) * 64 + Move.to(lastMove);
+    }
+}
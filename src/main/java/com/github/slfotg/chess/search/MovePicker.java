@@ -0,0 +1,259 @@
+package com.github.slfotg.chess.search;
+
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.move.StaticExchange;
+
+/**
+ * Hands out the legal moves of a position one at a time in the order a search
+ * wants to try them: the move from the transposition table, captures and
+ * promotions by most valuable victim and least valuable attacker, the killer
+ * moves, the countermove, the remaining quiet moves by their history (see
+ * {@link MoveOrdering}) and finally the captures that lose material by
+ * {@link StaticExchange static exchange evaluation}.
+ *
+ * Moves are generated a stage at a time when the previous stage runs out, so a
+ * node that is cut off by the hash move or a capture never generates its quiet
+ * moves. The hash move, the killers and the countermove are tested for
+ * legality on their own, since they come from other positions.
+ *
+ * A search keeps one picker per ply, so picking does not allocate.
+ */
+public final class MovePicker {
+
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int CAPTURES = 2;
+    private static final int FIRST_KILLER = 3;
+    private static final int SECOND_KILLER = 4;
+    private static final int COUNTER_MOVE = 5;
+    private static final int GENERATE_QUIETS = 6;
+    private static final int QUIETS = 7;
+    private static final int BAD_CAPTURES = 8;
+    private static final int DONE = 9;
+
+    private final ChessMoveGenerator moveGenerator;
+    private final MoveList moves = new MoveList();
+    private final int[] scores = new int[MoveList.DEFAULT_CAPACITY];
+    private final MoveList scratch = new MoveList(32);
+    private final MoveList badCaptures = new MoveList();
+
+    private SearchBoard board;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int counterMove;
+    private MoveOrdering moveOrdering;
+    private int stage = DONE;
+    private int index;
+    private boolean capturesOnly;
+
+    public MovePicker() {
+        this(new ChessMoveGenerator());
+    }
+
+    public MovePicker(ChessMoveGenerator moveGenerator) {
+        this.moveGenerator = moveGenerator;
+    }
+
+    /**
+     * Start picking the moves of the board's current position
+     *
+     * @param board
+     * @param hashMove     the move to try first or {@link Move#NONE}
+     * @param firstKiller  a quiet move that caused a cutoff at this ply or
+     *                     {@link Move#NONE}
+     * @param secondKiller an older killer or {@link Move#NONE}
+     */
+    public void init(SearchBoard board, int hashMove, int firstKiller, int secondKiller) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.counterMove = Move.NONE;
+        this.moveOrdering = null;
+        this.capturesOnly = false;
+        this.stage = HASH;
+    }
+
+    /**
+     * Start picking the moves of the board's current position, taking the
+     * killers, the countermove and the history of quiet moves from what the
+     * search has learned so far
+     *
+     * @param board
+     * @param hashMove     the move to try first or {@link Move#NONE}
+     * @param moveOrdering
+     * @param ply          the distance of the position from the root
+     */
+    public void init(SearchBoard board, int hashMove, MoveOrdering moveOrdering, int ply) {
+        init(board, hashMove, moveOrdering.getFirstKiller(ply), moveOrdering.getSecondKiller(ply));
+        this.counterMove = moveOrdering.getCounterMove(board);
+        this.moveOrdering = moveOrdering;
+    }
+
+    /**
+     * Start picking only the captures and promotions of the board's current
+     * position that do not lose material, for a quiescence search
+     *
+     * @param board
+     */
+    public void initCaptures(SearchBoard board) {
+        init(board, Move.NONE, Move.NONE, Move.NONE);
+        this.capturesOnly = true;
+        this.stage = GENERATE_CAPTURES;
+    }
+
+    /**
+     * Returns the next legal move or {@link Move#NONE} once every legal move was
+     * returned
+     *
+     * @return
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+            case HASH:
+                stage = GENERATE_CAPTURES;
+                if (moveGenerator.isLegal(board, hashMove, scratch)) {
+                    return hashMove;
+                }
+                break;
+            case GENERATE_CAPTURES:
+                moveGenerator.generateLegalMoves(board, moves, ChessMoveGenerator.CAPTURES);
+                for (int i = 0; i < moves.size(); i += 1) {
+                    scores[i] = captureScore(moves.get(i));
+                }
+                index = 0;
+                badCaptures.clear();
+                stage = CAPTURES;
+                break;
+            case CAPTURES:
+                while (index < moves.size()) {
+                    int move = selectBest();
+                    if (move == hashMove) {
+                        continue;
+                    }
+                    // promotions are worth trying even when the pawn is lost
+                    if (Move.isPromotion(move) || StaticExchange.isAtLeast(board, move, 0)) {
+                        return move;
+                    }
+                    if (!capturesOnly) {
+                        badCaptures.add(move);
+                    }
+                }
+                stage = capturesOnly ? DONE : FIRST_KILLER;
+                break;
+            case FIRST_KILLER:
+                stage = SECOND_KILLER;
+                if (isKiller(firstKiller)) {
+                    return firstKiller;
+                }
+                break;
+            case SECOND_KILLER:
+                stage = COUNTER_MOVE;
+                if (secondKiller != firstKiller && isKiller(secondKiller)) {
+                    return secondKiller;
+                }
+                break;
+            case COUNTER_MOVE:
+                stage = GENERATE_QUIETS;
+                if (counterMove != firstKiller && counterMove != secondKiller && isKiller(counterMove)) {
+                    return counterMove;
+                }
+                break;
+            case GENERATE_QUIETS:
+                moveGenerator.generateLegalMoves(board, moves, ChessMoveGenerator.QUIETS);
+                if (moveOrdering != null) {
+                    int color = board.getSideToMoveIndex();
+                    for (int i = 0; i < moves.size(); i += 1) {
+                        scores[i] = moveOrdering.getHistory(color, moves.get(i));
+                    }
+                }
+                index = 0;
+                stage = QUIETS;
+                break;
+            case QUIETS:
+                while (index < moves.size()) {
+                    int move;
+                    if (moveOrdering != null) {
+                        move = selectBest();
+                    } else {
+                        move = moves.get(index);
+                        index += 1;
+                    }
+                    if (move != hashMove && move != firstKiller && move != secondKiller && move != counterMove) {
+                        return move;
+                    }
+                }
+                index = 0;
+                stage = BAD_CAPTURES;
+                break;
+            case BAD_CAPTURES:
+                if (index < badCaptures.size()) {
+                    index += 1;
+                    return badCaptures.get(index - 1);
+                }
+                stage = DONE;
+                break;
+            default:
+                return Move.NONE;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the move is neither a capture nor a promotion
+     *
+     * @param move
+     * @return
+     */
+    public static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && !Move.isPromotion(move);
+    }
+
+    /**
+     * Returns true if a killer or countermove is legal and was not picked yet
+     */
+    private boolean isKiller(int killer) {
+        // a killer that is a capture was already picked with the captures
+        return killer != hashMove && isQuiet(killer) && moveGenerator.isLegal(board, killer, scratch);
+    }
+
+    /**
+     * Move the best scored of the remaining moves to the front of the remaining
+     * moves and return it. Most nodes are cut off after one or two moves, so this
+     * is cheaper than sorting them all.
+     */
+    private int selectBest() {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i += 1) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        int score = scores[best];
+        moves.set(best, moves.get(index));
+        scores[best] = scores[index];
+        moves.set(index, move);
+        scores[index] = score;
+        index += 1;
+        return move;
+    }
+
+    private int captureScore(int move) {
+        int score = 0;
+        if (Move.isCapture(move)) {
+            int victim = Move.isEnPassant(move) ? Piece.PAWN.ordinal() : board.getSquare(Move.to(move)) % 6;
+            score = 10 * StaticExchange.value(victim) - StaticExchange.value(Move.pieceIndex(move));
+        }
+        if (Move.isPromotion(move)) {
+            score += StaticExchange.value(Move.promotionIndex(move));
+        }
+        return score;
+    }
+}
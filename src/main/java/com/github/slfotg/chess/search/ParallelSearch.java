@@ -0,0 +1,180 @@
+package com.github.slfotg.chess.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.evaluate.BoardEvaluationFunction;
+
+/**
+ * Lazy SMP: the same root is searched by one main and threads - 1 helper
+ * {@link AlphaBetaSearch} instances sharing one {@link TranspositionTable}.
+ * Helpers start their iterative deepening at staggered depths so they fill the
+ * table ahead of the main search instead of repeating it. The search ends when
+ * the main search does, and the deepest completed result of any thread is
+ * returned.
+ *
+ * The evaluation function is shared by all threads and must be thread safe.
+ * Node limits apply to the main search only.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private final TranspositionTable transpositionTable;
+    private final AlphaBetaSearch[] searches;
+    private final ExecutorService helperThreads;
+
+    /**
+     * Search with one thread per available processor
+     *
+     * @param evaluationFunction
+     */
+    public ParallelSearch(BoardEvaluationFunction evaluationFunction) {
+        this(evaluationFunction, Runtime.getRuntime().availableProcessors(), new TranspositionTable());
+    }
+
+    public ParallelSearch(BoardEvaluationFunction evaluationFunction, int threads,
+            TranspositionTable transpositionTable) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("at least one search thread is needed");
+        }
+        this.transpositionTable = transpositionTable;
+        this.searches = new AlphaBetaSearch[threads];
+        for (int i = 0; i < threads; i += 1) {
+            searches[i] = new AlphaBetaSearch(evaluationFunction, transpositionTable);
+        }
+        this.helperThreads = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return searches.length;
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Search for the best move of the player to move in the calling thread and
+     * all helper threads
+     *
+     * @param gameState the position to search (must not be finished)
+     * @param limits    when to stop searching
+     * @return the deepest completed result with the nodes of all threads
+     */
+    public SearchResult search(GameState gameState, SearchLimits limits) {
+        return search(new ChessGame(gameState, Collections.emptyList()), limits);
+    }
+
+    /**
+     * Search for the best move of the player to move in the calling thread and
+     * all helper threads, scoring repetitions of positions played earlier in the
+     * game as draws
+     *
+     * @param game   the game to search (must not be finished)
+     * @param limits when to stop searching
+     * @return the deepest completed result with the nodes of all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        transpositionTable.newSearch();
+        for (AlphaBetaSearch search : searches) {
+            search.clearStop();
+        }
+        SearchLimits helperLimits = SearchLimits.builder().maxDepth(limits.getMaxDepth())
+                .maxTime(limits.getMaxTime()).build();
+        List<Future<SearchResult>> helperResults = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i += 1) {
+            AlphaBetaSearch helper = searches[i];
+            int startDepth = helperStartDepth(i);
+            helperResults.add(helperThreads.submit(() -> helper.search(game, helperLimits, startDepth)));
+        }
+
+        SearchResult best;
+        try {
+            best = searches[0].search(game, limits, 1);
+        } finally {
+            stop();
+        }
+        long nodes = best.getNodes();
+        long cutoffs = best.getCutoffs();
+        long firstMoveCutoffs = best.getFirstMoveCutoffs();
+        for (Future<SearchResult> helperResult : helperResults) {
+            SearchResult result = join(helperResult);
+            nodes += result.getNodes();
+            cutoffs += result.getCutoffs();
+            firstMoveCutoffs += result.getFirstMoveCutoffs();
+            if (result.getDepth() > best.getDepth()) {
+                best = result;
+            }
+        }
+        // @formatter:off
+        return SearchResult.builder()
+                .bestMove(best.getBestMove())
+                .score(best.getScore())
+                .depth(best.getDepth())
+                .nodes(nodes)
+                .cutoffs(cutoffs)
+                .firstMoveCutoffs(firstMoveCutoffs)
+                .elapsed(best.getElapsed())
+                .principalVariation(best.getPrincipalVariation())
+                .build();
+        // @formatter:on
+    }
+
+    /**
+     * Forget the move ordering learned by every thread's searches, as for a new
+     * game. The transposition table is cleared separately.
+     */
+    public void clearMoveOrdering() {
+        for (AlphaBetaSearch search : searches) {
+            search.getMoveOrdering().clear();
+        }
+    }
+
+    /**
+     * Stop a running search in all threads
+     */
+    public void stop() {
+        for (AlphaBetaSearch search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Shut down the helper threads
+     */
+    @Override
+    public void close() {
+        if (helperThreads != null) {
+            helperThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Helpers cycle through starting one, two and three plies deeper than the
+     * main search
+     */
+    static int helperStartDepth(int helper) {
+        return 2 + (helper - 1) % 3;
+    }
+
+    private static SearchResult join(Future<SearchResult> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a helper search", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("a helper search failed", e.getCause());
+        }
+    }
+}
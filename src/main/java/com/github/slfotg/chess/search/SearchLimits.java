@@ -0,0 +1,40 @@
+package com.github.slfotg.chess.search;
+
+import java.time.Duration;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * When to stop a search. Every limit is optional; the search stops at the first
+ * one that is reached.
+ */
+@Builder
+@Getter
+public final class SearchLimits {
+
+    /**
+     * The deepest iteration to search
+     */
+    @Builder.Default
+    private final int maxDepth = AlphaBetaSearch.MAX_PLY;
+
+    /**
+     * The number of nodes after which the search is stopped
+     */
+    @Builder.Default
+    private final long maxNodes = Long.MAX_VALUE;
+
+    /**
+     * The time after which the search is stopped or null for no time limit
+     */
+    private final Duration maxTime;
+
+    public static SearchLimits depth(int maxDepth) {
+        return builder().maxDepth(maxDepth).build();
+    }
+
+    public static SearchLimits time(Duration maxTime) {
+        return builder().maxTime(maxTime).build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.slfotg.chess.search;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.github.slfotg.chess.move.ChessMove;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The outcome of the last completed iteration of a search
+ */
+@Builder
+@Getter
+@ToString
+public final class SearchResult {
+
+    private final ChessMove bestMove;
+    /**
+     * Centipawns from the side of the player to move (see
+     * {@link AlphaBetaSearch#MATE} for mate scores)
+     */
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    /**
+     * The beta cutoffs of the search and how many of them the first move searched
+     * caused
+     */
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final Duration elapsed;
+    private final List<ChessMove> principalVariation;
+
+    /**
+     * Returns the share of cutoffs caused by the first move searched, which is
+     * close to 1 when moves are well ordered
+     *
+     * @return
+     */
+    public double getFirstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    /**
+     * Returns true if the score is a forced mate for either side
+     *
+     * @return
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= AlphaBetaSearch.MATE - AlphaBetaSearch.MAX_PLY;
+    }
+}
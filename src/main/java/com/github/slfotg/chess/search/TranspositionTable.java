@@ -0,0 +1,146 @@
+package com.github.slfotg.chess.search;
+
+import com.github.slfotg.chess.util.LocklessHashTable;
+
+/**
+ * Fixed size hash table of search results keyed by Zobrist key, shared by the
+ * search threads without locks (see {@link LocklessHashTable}).
+ *
+ * <pre>
+ * data bits  0-21  best move (see com.github.slfotg.chess.move.Move)
+ *           22-29  depth
+ *           30-31  bound
+ *           32-39  generation (the search that stored it)
+ *           40-63  score (signed)
+ * </pre>
+ */
+public final class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /**
+     * Returned by {@link #probe(long)} when the position is not in the table
+     */
+    public static final long NO_ENTRY = 0L;
+
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    private final LocklessHashTable table;
+    private volatile int generation;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Create a table using at most the given amount of memory
+     *
+     * @param megabytes the size of the table (rounded down to a power of two
+     *                  number of slots)
+     */
+    public TranspositionTable(int megabytes) {
+        table = new LocklessHashTable(megabytes, NO_ENTRY);
+    }
+
+    /**
+     * Look up a position
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed entry (read it with the static accessors) or NO_ENTRY
+     */
+    public long probe(long key) {
+        return table.read(key, NO_ENTRY);
+    }
+
+    /**
+     * Store a search result. An entry of the current search is only replaced by
+     * a result that is at least as deep; entries of earlier searches are always
+     * replaced.
+     *
+     * @param key   the Zobrist key of the position
+     * @param move  the best move or Move.NONE
+     * @param depth the remaining depth the position was searched to
+     * @param bound LOWER_BOUND, UPPER_BOUND or EXACT
+     * @param score the score of the position
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        int slot = table.slot(key);
+        long existing = table.data(slot);
+        boolean sameKey = table.matches(slot, key);
+        if (!sameKey && existing != NO_ENTRY && generation(existing) == (generation & 0xFF)
+                && depth(existing) > depth) {
+            return;
+        }
+        if (sameKey && move == 0) {
+            // keep the best move of a previous search of the same position
+            move = move(existing);
+        }
+        // @formatter:off
+        long data = (move & 0x3FFFFFL)
+                | ((long) Math.min(depth, 0xFF) << 22)
+                | ((long) bound << 30)
+                | ((long) (generation & 0xFF) << 32)
+                | ((long) score << 40);
+        // @formatter:on
+        table.write(key, data);
+    }
+
+    /**
+     * Start a new search: entries stored from now on replace all older ones
+     */
+    public void newSearch() {
+        generation += 1;
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    /**
+     * Returns the number of slots in the table
+     *
+     * @return
+     */
+    public int capacity() {
+        return table.capacity();
+    }
+
+    /**
+     * Estimate how full the table is from a sample of slots
+     *
+     * @return the permille of sampled slots used by the current search
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        for (int i = 0; i < sample; i += 1) {
+            long data = table.data(i);
+            if (data != NO_ENTRY && generation(data) == (generation & 0xFF)) {
+                used += 1;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0x3FFFFF);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 22) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 30) & 0x3;
+    }
+
+    public static int score(long entry) {
+        return (int) (entry >> 40);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 32) & 0xFF;
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.slfotg.chess.util;
+
+/**
+ * Fixed size hash table of one long of data per 64-bit key, backed by a single
+ * long[] so it can be shared by many threads without locks. The tables of the
+ * search, perft and evaluation keep their entries here and only decide how the
+ * data is packed and when an entry is replaced.
+ *
+ * Every slot is two longs: the key XOR the data, and the data. A reader only
+ * accepts a slot when XOR-ing them gives back its key, so a slot torn by two
+ * threads writing at the same time reads as a miss instead of as a wrong
+ * entry. Keys are not stored otherwise, and the slot of a key is given by its
+ * low bits.
+ */
+public final class LocklessHashTable {
+
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    // largest power of two number of slots a long[] can hold
+    private static final int MAX_SLOTS = 1 << 29;
+
+    private final long[] table;
+    private final int mask;
+    private final long emptyData;
+
+    /**
+     * Create a table using at most the given amount of memory
+     *
+     * @param megabytes the size of the table (rounded down to a power of two
+     *                  number of slots)
+     * @param emptyData the data of an empty slot, which should not be valid data
+     *                  so an empty slot never reads as an entry
+     */
+    public LocklessHashTable(int megabytes, long emptyData) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("the table needs at least 1 MB");
+        }
+        long slots = Long.highestOneBit(Math.min((long) megabytes * 1024 * 1024 / SLOT_BYTES, MAX_SLOTS));
+        this.table = new long[(int) slots * 2];
+        this.mask = (int) slots - 1;
+        this.emptyData = emptyData;
+        clear();
+    }
+
+    /**
+     * Returns the slot of a key
+     *
+     * @param key
+     * @return
+     */
+    public int slot(long key) {
+        return (int) key & mask;
+    }
+
+    /**
+     * Returns the data of a key, or missing if its slot holds another key
+     *
+     * @param key
+     * @param missing
+     * @return
+     */
+    public long read(long key, long missing) {
+        int index = slot(key) << 1;
+        long data = table[index + 1];
+        return (table[index] ^ data) == key ? data : missing;
+    }
+
+    /**
+     * Returns the data of a slot whatever key it belongs to, for deciding
+     * whether to replace it
+     *
+     * @param slot
+     * @return
+     */
+    public long data(int slot) {
+        return table[(slot << 1) + 1];
+    }
+
+    /**
+     * Returns true if the slot holds the entry of the key
+     *
+     * @param slot
+     * @param key
+     * @return
+     */
+    public boolean matches(int slot, long key) {
+        int index = slot << 1;
+        return (table[index] ^ table[index + 1]) == key;
+    }
+
+    /**
+     * Store the data of a key in its slot, replacing whatever was there
+     *
+     * @param key
+     * @param data
+     */
+    public void write(long key, long data) {
+        int index = slot(key) << 1;
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    public void clear() {
+        for (int index = 0; index < table.length; index += 2) {
+            table[index] = 0L;
+            table[index + 1] = emptyData;
+        }
+    }
+
+    /**
+     * Returns the number of slots in the table
+     *
+     * @return
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
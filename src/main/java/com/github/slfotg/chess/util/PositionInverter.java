@@ -100,14 +100,7 @@ public class PositionInverter {
     }
 
     public Board invertBoard(Board board) {
-        var mirrorCurrentPieces = new EnumMap<Position, Piece>(Position.class);
-        board.getOpponentPieces()
-                .forEach((position, piece) -> mirrorCurrentPieces.put(invertPosition(position), piece));
-        var mirrorOpponentPieces = new EnumMap<Position, Piece>(Position.class);
-        board.getCurrentPieces()
-                .forEach((position, piece) -> mirrorOpponentPieces.put(invertPosition(position), piece));
-        return new Board(mirrorCurrentPieces, mirrorOpponentPieces, invertPosition(board.getOpponentKingPosition()),
-                invertPosition(board.getKingPosition()));
+        return board.mirror();
     }
 
     public ChessMove invertChessMove(ChessMove chessMove) {
@@ -129,6 +122,11 @@ public class PositionInverter {
             return chessMove.getPiece();
         }
 
+        @Override
+        public Piece getFinalPiece() {
+            return chessMove.getFinalPiece();
+        }
+
         @Override
         public Position[] getPath() {
             Position[] originalPath = chessMove.getPath();
@@ -149,6 +147,11 @@ public class PositionInverter {
             return chessMove.updateCastlingRights(currentPlayerRights);
         }
 
+        @Override
+        public CastlingRights updateOpponentCastlingRights(CastlingRights opponentRights) {
+            return chessMove.updateOpponentCastlingRights(opponentRights);
+        }
+
         @Override
         public boolean hasCastlingRights(CastlingRights currentPlayerRights) {
             return chessMove.hasCastlingRights(currentPlayerRights);
@@ -0,0 +1,75 @@
+package com.github.slfotg.chess.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for 64-bit Zobrist position hashing. A position's key is the XOR
+ * of the keys of every piece on its square, the castling rights, the en passant
+ * file and the side to move, so it can be updated incrementally as moves are
+ * applied. Squares are bitboard indexes and pieces are encoded as
+ * color * 6 + piece ordinal, the same as {@link com.github.slfotg.chess.SearchBoard}.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED_C0FF_EE15_600DL;
+
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < 64; square += 1) {
+                keys[square] = random.nextLong();
+            }
+        }
+        // no rights hashes to 0 so positions without castling only depend on pieces
+        for (int i = 1; i < CASTLING_KEYS.length; i += 1) {
+            CASTLING_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_KEYS.length; i += 1) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Get the key of a piece on a square
+     *
+     * @param coloredPiece color * 6 + piece ordinal
+     * @param square       the square index
+     * @return
+     */
+    public static long piece(int coloredPiece, int square) {
+        return PIECE_KEYS[coloredPiece][square];
+    }
+
+    /**
+     * Get the key of a set of castling rights
+     *
+     * @param castlingRights castling bits as used by SearchBoard
+     * @return
+     */
+    public static long castling(int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    /**
+     * Get the key of an en passant square (only its file is hashed)
+     *
+     * @param square the en passant square index
+     * @return
+     */
+    public static long enPassant(int square) {
+        return EN_PASSANT_KEYS[square & 7];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE_KEY;
+    }
+}
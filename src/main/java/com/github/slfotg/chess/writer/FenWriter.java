@@ -0,0 +1,133 @@
+package com.github.slfotg.chess.writer;
+
+import java.nio.ByteBuffer;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+import com.github.slfotg.chess.enums.Side;
+
+/**
+ * Writes game states in Forsyth-Edwards Notation, the format read by
+ * {@link com.github.slfotg.chess.reader.FenReader}. Text can be appended to a
+ * reused StringBuilder or put in a ByteBuffer as ASCII, so writing many
+ * positions creates no intermediate strings.
+ */
+public class FenWriter {
+
+    private static final Piece[] PIECES = Piece.values();
+    // indexed by Piece ordinal
+    private static final char[] WHITE_PIECES = { 'P', 'N', 'B', 'R', 'Q', 'K' };
+    private static final char[] BLACK_PIECES = { 'p', 'n', 'b', 'r', 'q', 'k' };
+    // 64 squares, 7 slashes, the side, castling and en passant fields and two
+    // ten digit clocks, each after a space
+    private static final int MAX_LENGTH = 64 + 7 + 2 + 5 + 3 + 11 + 11;
+
+    /**
+     * Returns the FEN of a game state
+     *
+     * @param gameState
+     * @return
+     */
+    public String write(GameState gameState) {
+        return write(gameState, new StringBuilder(MAX_LENGTH)).toString();
+    }
+
+    /**
+     * Append the FEN of a game state
+     *
+     * @param gameState
+     * @param builder
+     * @return the builder
+     */
+    public StringBuilder write(GameState gameState, StringBuilder builder) {
+        Board board = gameState.getBoard();
+        for (int rank = 7; rank >= 0; rank -= 1) {
+            int empty = 0;
+            for (int file = 0; file < 8; file += 1) {
+                char piece = pieceAt(board, rank * 8 + file);
+                if (piece == 0) {
+                    empty += 1;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                builder.append(piece);
+            }
+            if (empty > 0) {
+                builder.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                builder.append('/');
+            }
+        }
+
+        boolean whiteToMove = gameState.getActiveColor() == Color.WHITE;
+        builder.append(' ').append(whiteToMove ? 'w' : 'b').append(' ');
+        CastlingRights whiteRights = whiteToMove ? gameState.getCurrentPlayerRights() : gameState.getOpponentRights();
+        CastlingRights blackRights = whiteToMove ? gameState.getOpponentRights() : gameState.getCurrentPlayerRights();
+        int length = builder.length();
+        appendIf(builder, whiteRights.hasRights(Side.KING), 'K');
+        appendIf(builder, whiteRights.hasRights(Side.QUEEN), 'Q');
+        appendIf(builder, blackRights.hasRights(Side.KING), 'k');
+        appendIf(builder, blackRights.hasRights(Side.QUEEN), 'q');
+        if (builder.length() == length) {
+            builder.append('-');
+        }
+
+        builder.append(' ');
+        Position enPassant = gameState.getEnPassant();
+        if (enPassant == null) {
+            builder.append('-');
+        } else {
+            builder.append((char) ('a' + enPassant.getIndex() % 8)).append((char) ('1' + enPassant.getIndex() / 8));
+        }
+        return builder.append(' ').append(gameState.getHalfMoveClock()).append(' ')
+                .append(gameState.getFullMoveNumber());
+    }
+
+    /**
+     * Put the FEN of a game state in a buffer as ASCII, with no line terminator
+     *
+     * @param gameState
+     * @param buffer
+     * @param builder   scratch space, cleared before use
+     * @throws java.nio.BufferOverflowException if the buffer has too little room
+     */
+    public void write(GameState gameState, ByteBuffer buffer, StringBuilder builder) {
+        builder.setLength(0);
+        write(gameState, builder);
+        for (int i = 0; i < builder.length(); i += 1) {
+            buffer.put((byte) builder.charAt(i));
+        }
+    }
+
+    private static void appendIf(StringBuilder builder, boolean condition, char c) {
+        if (condition) {
+            builder.append(c);
+        }
+    }
+
+    /**
+     * Returns the FEN letter of the piece on a square, or 0 if it is empty
+     */
+    private static char pieceAt(Board board, int square) {
+        long mask = 1L << square;
+        if ((board.getOccupancy() & mask) == 0) {
+            return 0;
+        }
+        boolean white = (board.getCurrentOccupancy() & mask) != 0;
+        for (int piece = 0; piece < WHITE_PIECES.length; piece += 1) {
+            long bitboard = white ? board.getCurrentBitboard(PIECES[piece]) : board.getOpponentBitboard(PIECES[piece]);
+            if ((bitboard & mask) != 0) {
+                return white ? WHITE_PIECES[piece] : BLACK_PIECES[piece];
+            }
+        }
+        return 0;
+    }
+}
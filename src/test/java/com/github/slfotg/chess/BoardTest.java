@@ -0,0 +1,51 @@
+package com.github.slfotg.chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+
+class BoardTest {
+
+    @Test
+    void testInitialBoard() {
+        Board board = Board.initialBoard();
+        assertEquals(15, board.getCurrentPieces().size());
+        assertEquals(15, board.getOpponentPieces().size());
+        assertEquals(Position.E1, board.getKingPosition());
+        assertEquals(Position.E8, board.getOpponentKingPosition());
+        assertEquals(0xFFFFL, board.getCurrentOccupancy());
+        assertEquals(0xFFFFL << 48, board.getOpponentOccupancy());
+        assertEquals(Optional.of(Piece.QUEEN), board.pieceAt(Position.D8));
+        assertEquals(Optional.empty(), board.pieceAt(Position.E4));
+    }
+
+    @Test
+    void testMove() {
+        Board board = Board.initialBoard().move(Piece.PAWN, Position.E2, Position.E4, Piece.PAWN, null);
+        assertEquals(Piece.PAWN, board.getCurrentPieces().get(Position.E4));
+        assertFalse(board.isOccupied(Position.E2));
+        assertEquals(Optional.of(Piece.PAWN), Board.initialBoard().pieceAt(Position.E2));
+
+        Board capture = board.move(Piece.PAWN, Position.E4, Position.D7, Piece.QUEEN, Position.D7);
+        assertEquals(Piece.QUEEN, capture.getCurrentPieces().get(Position.D7));
+        assertFalse(capture.getOpponentPieces().containsKey(Position.D7));
+        assertEquals(14, capture.getOpponentPieces().size());
+    }
+
+    @Test
+    void testMirror() {
+        Board board = Board.initialBoard();
+        assertEquals(board, board.mirror());
+        assertEquals(board.hashCode(), board.mirror().hashCode());
+
+        Board moved = board.move(Piece.KNIGHT, Position.G1, Position.F3, Piece.KNIGHT, null);
+        Board mirrored = moved.mirror();
+        assertEquals(Piece.KNIGHT, mirrored.getOpponentPieces().get(Position.F6));
+        assertEquals(moved, mirrored.mirror());
+    }
+}
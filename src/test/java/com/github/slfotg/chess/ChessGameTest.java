@@ -0,0 +1,78 @@
+package com.github.slfotg.chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.enums.Result;
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.EncodedChessMove;
+import com.github.slfotg.chess.move.Move;
+
+class ChessGameTest {
+
+    private static ChessGame play(ChessGame game, String... moves) {
+        for (String move : moves) {
+            game = game.applyMove(find(game, move));
+        }
+        return game;
+    }
+
+    private static ChessMove find(ChessGame game, String move) {
+        for (ChessMove chessMove : game.getPossibleMoves()) {
+            if (Move.toString(((EncodedChessMove) chessMove).getMove()).equals(move)) {
+                return chessMove;
+            }
+        }
+        throw new IllegalArgumentException("illegal move " + move);
+    }
+
+    @Test
+    void testCheckmate() {
+        ChessGame game = play(ChessGame.newGame(), "f2f3", "e7e5", "g2g4", "d8h4");
+        GameState state = game.getGameState();
+        assertFalse(state.hasAnyLegalMove());
+        assertTrue(state.getPossibleMoves().isEmpty());
+        assertEquals(Optional.of(Result.BLACK_WINS), game.getResult());
+        // the result and moves are kept by the state
+        assertSame(state.getResult(), state.getResult());
+        assertSame(state.getPossibleMoves(), state.getPossibleMoves());
+    }
+
+    @Test
+    void testThreefoldRepetition() {
+        ChessGame game = play(ChessGame.newGame(), "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+        assertEquals(Optional.empty(), game.getResult());
+        ChessGame drawn = play(game, "f6g8");
+        assertEquals(Optional.of(Result.THREE_FOLD_DRAW), drawn.getResult());
+        // the game the draw was played from is unchanged
+        assertEquals(Optional.empty(), game.getResult());
+    }
+
+    @Test
+    void testPawnMoveEndsRepetitions() {
+        ChessGame game = play(ChessGame.newGame(), "g1f3", "g8f6", "f3g1", "f6g8", "e2e3", "e7e6", "g1f3", "g8f6",
+                "f3g1", "f6g8");
+        assertEquals(Optional.empty(), game.getResult());
+        assertEquals(Optional.of(Result.THREE_FOLD_DRAW),
+                play(game, "g1f3", "g8f6", "f3g1", "f6g8").getResult());
+    }
+
+    @Test
+    void testHistoryFromPreviousStates() {
+        List<GameState> previousStates = new ArrayList<>();
+        ChessGame game = ChessGame.newGame();
+        for (String move : new String[] { "b1c3", "b8c6", "c3b1", "c6b8", "b1c3", "b8c6", "c3b1" }) {
+            previousStates.add(game.getGameState());
+            game = play(game, move);
+        }
+        GameState last = play(game, "c6b8").getGameState();
+        assertEquals(Optional.empty(), new ChessGame(game.getGameState(), previousStates).getResult());
+        previousStates.add(game.getGameState());
+        assertEquals(Optional.of(Result.THREE_FOLD_DRAW), new ChessGame(last, previousStates).getResult());
+    }
+}
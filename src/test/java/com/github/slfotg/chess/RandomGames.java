@@ -0,0 +1,69 @@
+package com.github.slfotg.chess;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.github.slfotg.chess.move.ChessMove;
+
+/**
+ * Games of random legal moves from the initial position, for tests that check
+ * something of every position a game passes through. Each move is made on a
+ * {@link SearchBoard} and applied to a {@link GameState}, so a check gets the
+ * same position both ways.
+ */
+public final class RandomGames {
+
+    private RandomGames() {
+    }
+
+    /**
+     * Play random games and check every position of them, the initial position
+     * and the final one included
+     *
+     * @param seed  the seed of the random moves
+     * @param games the number of games
+     * @param plies the number of moves of a game that ends before mate or
+     *              stalemate
+     * @param check called with each position; it may make and unmake moves on
+     *              the board as long as it leaves it as it found it
+     */
+    public static void forEachPosition(long seed, int games, int plies, BiConsumer<SearchBoard, GameState> check) {
+        forEachPosition(seed, games, plies, check, board -> {
+        });
+    }
+
+    /**
+     * Play random games and check every position of them, the initial position
+     * and the final one included
+     *
+     * @param seed      the seed of the random moves
+     * @param games     the number of games
+     * @param plies     the number of moves of a game that ends before mate or
+     *                  stalemate
+     * @param check     called with each position; it may make and unmake moves
+     *                  on the board as long as it leaves it as it found it
+     * @param endOfGame called with the board of each game after its last
+     *                  position was checked
+     */
+    public static void forEachPosition(long seed, int games, int plies, BiConsumer<SearchBoard, GameState> check,
+            Consumer<SearchBoard> endOfGame) {
+        Random random = new Random(seed);
+        for (int game = 0; game < games; game += 1) {
+            GameState state = ChessGame.newGame().getGameState();
+            SearchBoard board = new SearchBoard(state);
+            for (int ply = 0;; ply += 1) {
+                check.accept(board, state);
+                List<ChessMove> moves = state.getPossibleMoves();
+                if (ply == plies || moves.isEmpty()) {
+                    break;
+                }
+                ChessMove move = moves.get(random.nextInt(moves.size()));
+                board.makeMove(board.encode(move));
+                state = state.applyMove(move);
+            }
+            endOfGame.accept(board);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.slfotg.chess;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.move.ChessMove;
+import com.github.slfotg.chess.move.EncodedChessMove;
+import com.github.slfotg.chess.move.Move;
+
+class SearchBoardTest {
+
+    @Test
+    void testLoadInitialState() {
+        GameState initialState = ChessGame.newGame().getGameState();
+        SearchBoard searchBoard = new SearchBoard(initialState);
+        assertEquals(initialState, searchBoard.toGameState());
+        assertEquals(0xFFFFL, searchBoard.getOccupancy(SearchBoard.WHITE));
+        assertEquals(0xFFFFL << 48, searchBoard.getOccupancy(SearchBoard.BLACK));
+        assertEquals(15, searchBoard.getCastlingRights());
+        assertEquals(initialState.getZobristKey(), searchBoard.getZobristKey());
+    }
+
+    @Test
+    void testMakeAndUnmakeRandomGames() {
+        List<GameState> states = new ArrayList<>();
+        RandomGames.forEachPosition(1234, 20, 200, (searchBoard, state) -> {
+            if (searchBoard.getPly() == 0) {
+                states.clear();
+            }
+            states.add(state);
+            assertEquals(state, searchBoard.toGameState());
+            assertEquals(state.getZobristKey(), searchBoard.getZobristKey());
+            assertEquals(state.getHalfMoveClock(), searchBoard.getHalfMoveClock());
+            assertEquals(state.getFullMoveNumber(), searchBoard.getFullMoveNumber());
+        }, searchBoard -> {
+            for (int i = states.size() - 2; i >= 0; i -= 1) {
+                searchBoard.unmakeMove();
+                assertEquals(states.get(i), searchBoard.toGameState());
+                assertEquals(states.get(i).getZobristKey(), searchBoard.getZobristKey());
+                assertEquals(states.get(i).getHalfMoveClock(), searchBoard.getHalfMoveClock());
+            }
+            assertEquals(0, searchBoard.getPly());
+        });
+    }
+
+    @Test
+    void testRepetitionIncludesLoadedGame() {
+        ChessGame game = ChessGame.newGame();
+        for (String move : new String[] { "g1f3", "g8f6", "f3g1", "f6g8" }) {
+            game = game.applyMove(find(game.getGameState(), move));
+        }
+        assertTrue(game.isRepetition(2));
+        assertFalse(game.isRepetition(3));
+
+        SearchBoard searchBoard = new SearchBoard(game);
+        assertTrue(searchBoard.isRepetition(2));
+        assertFalse(searchBoard.isRepetition(3));
+        GameState state = game.getGameState();
+        for (String move : new String[] { "g1f3", "g8f6", "f3g1", "f6g8" }) {
+            ChessMove chessMove = find(state, move);
+            searchBoard.makeMove(searchBoard.encode(chessMove));
+            state = state.applyMove(chessMove);
+        }
+        assertTrue(searchBoard.isRepetition(3));
+        assertFalse(searchBoard.isRepetition(4));
+
+        // nothing before a pawn move can repeat
+        searchBoard.makeMove(searchBoard.encode(find(state, "e2e4")));
+        assertFalse(searchBoard.isRepetition(2));
+        // a plain game state has no history
+        assertFalse(new SearchBoard(game.getGameState()).isRepetition(2));
+    }
+
+    private static ChessMove find(GameState state, String move) {
+        for (ChessMove chessMove : state.getPossibleMoves()) {
+            if (Move.toString(((EncodedChessMove) chessMove).getMove()).equals(move)) {
+                return chessMove;
+            }
+        }
+        throw new IllegalArgumentException("illegal move " + move);
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.slfotg.chess.bitboard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MagicBitboardsTest {
+
+    @Test
+    void testAttacksMatchRayWalk() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i += 1) {
+            // sparse and dense boards
+            long occupancy = i % 2 == 0 ? random.nextLong() & random.nextLong() : random.nextLong();
+            for (int square = 0; square < 64; square += 1) {
+                assertEquals(MagicBitboards.rookAttacksSlow(square, occupancy),
+                        MagicBitboards.rookAttacks(square, occupancy));
+                assertEquals(MagicBitboards.bishopAttacksSlow(square, occupancy),
+                        MagicBitboards.bishopAttacks(square, occupancy));
+            }
+        }
+    }
+
+    @Test
+    void testEmptyBoard() {
+        // rook on A1 sees the whole A file and first rank
+        assertEquals(0x01010101010101FEL, MagicBitboards.rookAttacks(0, 0L));
+        // bishop on A1 sees the long diagonal
+        assertEquals(0x8040201008040200L, MagicBitboards.bishopAttacks(0, 0L));
+        assertEquals(27, Long.bitCount(MagicBitboards.queenAttacks(27, 0L)));
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.slfotg.chess.evaluate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EvaluationKernelsTest {
+
+    private static final int LENGTH = 40;
+
+    @Test
+    void testSelectFallsBackToScalarKernels() {
+        assertTrue(EvaluationKernels.select(null) instanceof ScalarKernels);
+        assertTrue(EvaluationKernels.select("com.github.slfotg.chess.evaluate.MissingKernels") instanceof ScalarKernels);
+        // not a kernel class
+        assertTrue(EvaluationKernels.select("java.lang.Object") instanceof ScalarKernels);
+        assertEquals("scalar", EvaluationKernels.select(ScalarKernels.class.getName()).getName());
+    }
+
+    @Test
+    void testUpdateMatchesAddingRowsOneByOne() {
+        EvaluationKernels kernels = new ScalarKernels();
+        Random random = new Random(7);
+        short[] weights = new short[10 * LENGTH];
+        for (int i = 0; i < weights.length; i += 1) {
+            weights[i] = (short) (random.nextInt(2001) - 1000);
+        }
+        int[] added = new int[4];
+        int[] removed = new int[4];
+        for (int addedCount = 0; addedCount <= 4; addedCount += 1) {
+            for (int removedCount = 0; removedCount <= 4; removedCount += 1) {
+                short[] values = new short[3 * LENGTH];
+                for (int i = 0; i < LENGTH; i += 1) {
+                    values[LENGTH + i] = (short) random.nextInt();
+                }
+                short[] expected = new short[LENGTH];
+                System.arraycopy(values, LENGTH, expected, 0, LENGTH);
+                for (int f = 0; f < addedCount; f += 1) {
+                    added[f] = random.nextInt(10) * LENGTH;
+                    for (int i = 0; i < LENGTH; i += 1) {
+                        expected[i] += weights[added[f] + i];
+                    }
+                }
+                for (int f = 0; f < removedCount; f += 1) {
+                    removed[f] = random.nextInt(10) * LENGTH;
+                    for (int i = 0; i < LENGTH; i += 1) {
+                        expected[i] -= weights[removed[f] + i];
+                    }
+                }
+                kernels.update(values, LENGTH, values, 2 * LENGTH, weights, added, addedCount, removed,
+                        removedCount, LENGTH);
+                for (int i = 0; i < LENGTH; i += 1) {
+                    assertEquals(expected[i], values[2 * LENGTH + i]);
+                }
+                // updating in place gives the same values
+                kernels.update(values, LENGTH, values, LENGTH, weights, added, addedCount, removed, removedCount,
+                        LENGTH);
+                for (int i = 0; i < LENGTH; i += 1) {
+                    assertEquals(expected[i], values[LENGTH + i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testClipAndAffine() {
+        EvaluationKernels kernels = new ScalarKernels();
+        byte[] activations = new byte[4];
+        kernels.clip(new short[] { -5, 0, 50, 500 }, 0, activations, 0, 4, 127);
+        assertArrayEquals(new byte[] { 0, 0, 50, 127 }, activations);
+        // one pair of outputs, weights grouped by input
+        long[] weights = { 9, 9, pair(1, -2), pair(-1, 3) };
+        long[] sums = { pair(20, -10) };
+        kernels.affine(activations, 4, weights, sums, 1);
+        int low = (int) sums[0];
+        assertEquals(-10 + 50 * -2 + 127 * 3, low);
+        assertEquals(20 + 50 - 127, (int) ((sums[0] - low) >> 32));
+    }
+
+    @Test
+    void testVectorKernelsMatchScalarKernels() {
+        // only built by the vector profile and only loaded with the module added
+        EvaluationKernels vector = EvaluationKernels.select("com.github.slfotg.chess.evaluate.VectorKernels");
+        assumeTrue(vector.getName().equals("vector"), "the vector kernels are not available");
+        EvaluationKernels scalar = new ScalarKernels();
+        Random random = new Random(11);
+        // a length that is not a multiple of any vector length checks the tails
+        for (int length : new int[] { 256, 259 }) {
+            short[] weights = new short[10 * length];
+            for (int i = 0; i < weights.length; i += 1) {
+                weights[i] = (short) (random.nextInt(2001) - 1000);
+            }
+            short[] values = new short[length];
+            for (int i = 0; i < length; i += 1) {
+                values[i] = (short) random.nextInt();
+            }
+            int[] added = { 3 * length, 7 * length, 0 };
+            int[] removed = { 5 * length, 9 * length };
+            short[] expected = new short[length];
+            short[] actual = new short[length];
+            for (int addedCount = 0; addedCount <= 3; addedCount += 1) {
+                for (int removedCount = 0; removedCount <= 2; removedCount += 1) {
+                    scalar.update(values, 0, expected, 0, weights, added, addedCount, removed, removedCount, length);
+                    vector.update(values, 0, actual, 0, weights, added, addedCount, removed, removedCount, length);
+                    assertArrayEquals(expected, actual);
+                }
+            }
+
+            byte[] expectedActivations = new byte[length];
+            byte[] actualActivations = new byte[length];
+            scalar.clip(values, 0, expectedActivations, 0, length, 127);
+            vector.clip(values, 0, actualActivations, 0, length, 127);
+            assertArrayEquals(expectedActivations, actualActivations);
+
+            int pairCount = 5;
+            long[] layerWeights = new long[length * pairCount];
+            for (int i = 0; i < layerWeights.length; i += 1) {
+                layerWeights[i] = pair(random.nextInt(256) - 128, random.nextInt(256) - 128);
+            }
+            long[] expectedSums = new long[pairCount];
+            long[] actualSums = new long[pairCount];
+            scalar.affine(expectedActivations, length, layerWeights, expectedSums, pairCount);
+            vector.affine(actualActivations, length, layerWeights, actualSums, pairCount);
+            assertArrayEquals(expectedSums, actualSums);
+        }
+    }
+
+    private static long pair(int high, int low) {
+        return ((long) high << 32) + low;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.slfotg.chess.evaluate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.enums.Piece;
+
+class EvaluationPipelineTest {
+
+    @Test
+    void testInitialPositionIsBalanced() {
+        EvaluationPipeline pipeline = EvaluationPipeline.standard();
+        GameState state = ChessGame.newGame().getGameState();
+        assertEquals(0, pipeline.evaluateCentipawns(state));
+        assertEquals(0, pipeline.evaluateCentipawns(new SearchBoard(state)));
+        assertEquals(4, pipeline.getTerms().size());
+    }
+
+    @Test
+    void testCachedPawnScoresMatchFullEvaluation() {
+        PawnStructureTerm pawnStructure = new PawnStructureTerm(new PawnHashTable(1));
+        EvaluationPipeline pipeline = new EvaluationPipeline(new MaterialTerm(), new MobilityTerm(),
+                new KingSafetyTerm(), pawnStructure);
+        RandomGames.forEachPosition(5, 20, 200, (board, state) -> {
+            assertEquals(state.getPawnKey(), board.getPawnKey());
+            long white = board.getBitboard(SearchBoard.WHITE, Piece.PAWN);
+            long black = board.getBitboard(SearchBoard.BLACK, Piece.PAWN);
+            long scores = PawnStructureTerm.evaluatePawns(white, black);
+            assertEquals(PieceSquareTables.taper(PawnHashTable.middlegame(scores), PawnHashTable.endgame(scores),
+                    board.getPhase()), pawnStructure.evaluate(board, board.getPhase()));
+            assertEquals(pipeline.evaluateCentipawns(state), pipeline.evaluateCentipawns(board));
+        });
+    }
+
+    @Test
+    void testPawnStructure() {
+        long e2 = 1L << 12;
+        long e3 = 1L << 20;
+        long e6 = 1L << 44;
+        // a passed pawn is worth more the further it has advanced
+        assertTrue(PawnHashTable.endgame(PawnStructureTerm.evaluatePawns(e6, 0L)) > PawnHashTable
+                .endgame(PawnStructureTerm.evaluatePawns(e2, 0L)));
+        // black pawns score the mirror image of white pawns
+        long white = PawnStructureTerm.evaluatePawns(e6, 0L);
+        long black = PawnStructureTerm.evaluatePawns(0L, e3);
+        assertEquals(PawnHashTable.middlegame(white), -PawnHashTable.middlegame(black));
+        assertEquals(PawnHashTable.endgame(white), -PawnHashTable.endgame(black));
+        // pawns on a2 and a3 are worth less than pawns on a2 and b2
+        long doubled = (1L << 8) | (1L << 16);
+        long connected = (1L << 8) | (1L << 9);
+        assertTrue(PawnHashTable.middlegame(PawnStructureTerm.evaluatePawns(doubled, 0L)) < PawnHashTable
+                .middlegame(PawnStructureTerm.evaluatePawns(connected, 0L)));
+    }
+
+    @Test
+    void testPawnHashTable() {
+        PawnHashTable table = new PawnHashTable(1);
+        // nothing is found in an empty table, not even the key of no pawns
+        assertEquals(PawnHashTable.NO_ENTRY, table.probe(0L));
+        table.store(0L, -15, 30);
+        long data = table.probe(0L);
+        assertEquals(-15, PawnHashTable.middlegame(data));
+        assertEquals(30, PawnHashTable.endgame(data));
+        assertEquals(PawnHashTable.NO_ENTRY, table.probe(table.capacity()));
+        table.clear();
+        assertEquals(PawnHashTable.NO_ENTRY, table.probe(0L));
+    }
+}
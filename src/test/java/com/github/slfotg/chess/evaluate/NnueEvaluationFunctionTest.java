@@ -0,0 +1,63 @@
+package com.github.slfotg.chess.evaluate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.MoveList;
+
+class NnueEvaluationFunctionTest {
+
+    private final NnueNetwork network = NnueNetwork.random(3L, 4, 32, 8);
+
+    @Test
+    void testIncrementalEvaluationMatchesFullEvaluation() {
+        NnueEvaluationFunction evaluationFunction = new NnueEvaluationFunction(network);
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        MoveList moves = new MoveList();
+        Random random = new Random(11);
+        RandomGames.forEachPosition(11, 20, 150, (board, state) -> {
+            // skip some positions and step to a child and back in others, so
+            // accumulators are reused, skipped and left behind by positions that
+            // are not on the board any more
+            if (random.nextInt(3) != 0) {
+                assertEquals(evaluationFunction.evaluateCentipawns(state),
+                        evaluationFunction.evaluateCentipawns(board));
+            }
+            generator.generateLegalMoves(board, moves);
+            if (!moves.isEmpty() && random.nextInt(4) == 0) {
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                assertEquals(evaluationFunction.evaluateCentipawns(board.toGameState()),
+                        evaluationFunction.evaluateCentipawns(board));
+                board.unmakeMove();
+            }
+        });
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        network.write(out);
+        NnueNetwork copy = NnueNetwork.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(network.getKingBuckets(), copy.getKingBuckets());
+        assertEquals(network.getHiddenSize(), copy.getHiddenSize());
+        assertEquals(network.getLayerSize(), copy.getLayerSize());
+
+        GameState state = ChessGame.newGame().getGameState().nextPossibleStates().get(5);
+        assertEquals(new NnueEvaluationFunction(network).evaluateCentipawns(state),
+                new NnueEvaluationFunction(copy).evaluateCentipawns(state));
+
+        byte[] bytes = out.toByteArray();
+        bytes[0] ^= 1;
+        assertThrows(IOException.class, () -> NnueNetwork.read(new ByteArrayInputStream(bytes)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.slfotg.chess.evaluate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.SearchBoard;
+
+class PieceSquareEvaluationFunctionTest {
+
+    private final PieceSquareEvaluationFunction evaluationFunction = new PieceSquareEvaluationFunction();
+
+    @Test
+    void testInitialPositionIsBalanced() {
+        SearchBoard board = new SearchBoard(ChessGame.newGame().getGameState());
+        assertEquals(0, evaluationFunction.evaluateCentipawns(board));
+        assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+    }
+
+    @Test
+    void testIncrementalScoresMatchFullEvaluation() {
+        RandomGames.forEachPosition(99, 20, 200, (board, state) -> {
+            SearchBoard loaded = new SearchBoard(state);
+            assertEquals(loaded.getMiddlegameScore(), board.getMiddlegameScore());
+            assertEquals(loaded.getEndgameScore(), board.getEndgameScore());
+            assertEquals(loaded.getPhase(), board.getPhase());
+            assertEquals(evaluationFunction.evaluateCentipawns(state), evaluationFunction.evaluateCentipawns(board));
+        }, board -> {
+            // taking every move back restores the scores of the initial position
+            while (board.getPly() > 0) {
+                board.unmakeMove();
+            }
+            assertEquals(0, evaluationFunction.evaluateCentipawns(board));
+        });
+    }
+}
@@ -1,20 +1,153 @@
 package com.github.slfotg.chess.move;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Test;
 
 import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.bitboard.Bitboards;
 import com.github.slfotg.chess.enums.CastlingRights;
-import com.github.slfotg.chess.util.PositionInverter;
+import com.github.slfotg.chess.enums.Piece;
 
 class MoveGeneratorTest {
 
     @Test
     void testInitialMoves() {
         Board board = Board.initialBoard();
-        ChessMoveGenerator generator = new ChessMoveGenerator(new PositionInverter());
+        ChessMoveGenerator generator = new ChessMoveGenerator();
 
         var moves = generator.getPossibleMoves(board, CastlingRights.EITHER_SIDE, null);
         System.out.println(moves.size());
         moves.forEach(System.out::println);
     }
+
+    @Test
+    void testInitialEncodedMoves() {
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        SearchBoard searchBoard = new SearchBoard(ChessGame.newGame().getGameState());
+        MoveList moves = new MoveList();
+        generator.generateLegalMoves(searchBoard, moves);
+        assertEquals(20, moves.size());
+        int doublePushes = 0;
+        for (int i = 0; i < moves.size(); i += 1) {
+            if (Move.isDoublePush(moves.get(i))) {
+                doublePushes += 1;
+            }
+        }
+        assertEquals(8, doublePushes);
+
+        // @formatter:off
+        Set<String> expected = generator.getPossibleMoves(Board.initialBoard(), CastlingRights.EITHER_SIDE, null)
+                .stream()
+                .map(ChessMove::stringValue)
+                .collect(Collectors.toSet());
+        Set<String> actual = generator.getPossibleMoves(searchBoard)
+                .stream()
+                .map(ChessMove::stringValue)
+                .collect(Collectors.toSet());
+        // @formatter:on
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testLegalMovesMatchFilteredPseudoLegalMoves() {
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        MoveList legal = new MoveList();
+        MoveList pseudoLegal = new MoveList();
+        RandomGames.forEachPosition(42, 20, 200, (board, state) -> {
+            generator.generateLegalMoves(board, legal);
+            generator.generatePseudoLegalMoves(board, pseudoLegal);
+            int us = board.getSideToMoveIndex();
+            Set<Integer> expected = new HashSet<>();
+            for (int i = 0; i < pseudoLegal.size(); i += 1) {
+                board.makeMove(pseudoLegal.get(i));
+                if (!board.isAttacked(board.getKingSquare(us), us ^ 1)) {
+                    expected.add(pseudoLegal.get(i));
+                }
+                board.unmakeMove();
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (int i = 0; i < legal.size(); i += 1) {
+                actual.add(legal.get(i));
+            }
+            assertEquals(expected.size(), legal.size());
+            assertEquals(expected, actual);
+            assertEquals(!legal.isEmpty(), generator.hasLegalMove(board));
+            assertEquals(expected, stages(generator, board));
+            for (int i = 0; i < pseudoLegal.size(); i += 1) {
+                assertEquals(expected.contains(pseudoLegal.get(i)), generator.isLegal(board, pseudoLegal.get(i)));
+            }
+        });
+    }
+
+    /**
+     * Returns the captures and the quiet moves, checking that no move is in both
+     */
+    private static Set<Integer> stages(ChessMoveGenerator generator, SearchBoard board) {
+        MoveList moves = new MoveList();
+        Set<Integer> stages = new HashSet<>();
+        generator.generateLegalMoves(board, moves, ChessMoveGenerator.CAPTURES);
+        for (int i = 0; i < moves.size(); i += 1) {
+            assertTrue(Move.isCapture(moves.get(i)) || Move.isPromotion(moves.get(i)));
+            stages.add(moves.get(i));
+        }
+        generator.generateLegalMoves(board, moves, ChessMoveGenerator.QUIETS);
+        for (int i = 0; i < moves.size(); i += 1) {
+            assertFalse(Move.isCapture(moves.get(i)) || Move.isPromotion(moves.get(i)));
+            assertTrue(stages.add(moves.get(i)));
+        }
+        return stages;
+    }
+
+    @Test
+    void testKingMovesAvoidAttackedSquares() {
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        MoveList legal = new MoveList();
+        RandomGames.forEachPosition(7, 20, 200, (board, state) -> {
+            generator.generateLegalMoves(board, legal);
+            int us = board.getSideToMoveIndex();
+            int king = board.getKingSquare(us);
+            long kingMoves = 0L;
+            for (int i = 0; i < legal.size(); i += 1) {
+                if (Move.from(legal.get(i)) == king && !Move.isCastle(legal.get(i))) {
+                    kingMoves |= 1L << Move.to(legal.get(i));
+                }
+            }
+            // a king move is legal if the king is not attacked once it has
+            // moved, which also takes it off its old square
+            long expected = 0L;
+            long enemy = board.getOccupancy(us ^ 1);
+            for (long bits = Bitboards.kingAttacks(king) & ~board.getOccupancy(us); bits != 0; bits &= bits - 1) {
+                int to = Long.numberOfTrailingZeros(bits);
+                board.makeMove(Move.of(king, to, Piece.KING, (enemy & (1L << to)) != 0 ? Move.CAPTURE : 0));
+                if (!board.isAttacked(to, us ^ 1)) {
+                    expected |= 1L << to;
+                }
+                board.unmakeMove();
+            }
+            assertEquals(expected, kingMoves);
+            long attacks = board.getOpponentAttacks();
+            assertEquals(Bitboards.kingAttacks(king) & ~board.getOccupancy(us) & ~attacks, expected);
+            assertEquals(board.isAttacked(king, us ^ 1), board.isInCheck());
+
+            // a game state of the same position computes the same bitboards
+            assertEquals(board.getCheckers(), state.getCheckers());
+            assertEquals(attacks, state.getOpponentAttacks());
+            if (!legal.isEmpty()) {
+                long checkers = board.getCheckers();
+                // the cached checkers of this ply are still valid after unmaking a move
+                board.makeMove(legal.get(0));
+                board.getCheckers();
+                board.unmakeMove();
+                assertEquals(checkers, board.getCheckers());
+            }
+        });
+    }
 }
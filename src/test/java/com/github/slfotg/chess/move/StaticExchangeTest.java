@@ -0,0 +1,109 @@
+package com.github.slfotg.chess.move;
+
+import static com.github.slfotg.chess.enums.Piece.*;
+import static com.github.slfotg.chess.enums.Position.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+
+class StaticExchangeTest {
+
+    private static GameState whiteToMove(Map<Position, Piece> white, Map<Position, Piece> black) {
+        // @formatter:off
+        return GameState.builder()
+                .activeColor(Color.WHITE)
+                .halfMoveClock(0)
+                .fullMoveNumber(1)
+                .board(new Board(white, black, G1, G8))
+                .currentPlayerRights(CastlingRights.NONE)
+                .opponentRights(CastlingRights.NONE)
+                .build();
+        // @formatter:on
+    }
+
+    private static int capture(Position from, Position to, Piece piece) {
+        return Move.of(from.getIndex(), to.getIndex(), piece, Move.CAPTURE);
+    }
+
+    @Test
+    void testUndefendedAndDefendedCaptures() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(D1, ROOK);
+        white.put(B3, KNIGHT);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(D5, PAWN);
+        black.put(A5, PAWN);
+        black.put(B6, PAWN);
+        GameState state = whiteToMove(white, black);
+
+        // d5 is not defended, a5 is defended by the pawn on b6
+        assertEquals(100, StaticExchange.evaluate(state, capture(D1, D5, ROOK)));
+        assertEquals(100 - 300, StaticExchange.evaluate(state, capture(B3, A5, KNIGHT)));
+        assertTrue(StaticExchange.isAtLeast(state, capture(D1, D5, ROOK), 0));
+        assertFalse(StaticExchange.isAtLeast(state, capture(B3, A5, KNIGHT), 0));
+    }
+
+    @Test
+    void testRecapturesThroughOpenedLines() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(D1, ROOK);
+        white.put(D2, ROOK);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(D5, PAWN);
+        black.put(D8, ROOK);
+        GameState state = whiteToMove(white, black);
+
+        // the rook on d1 recaptures through d2 once the first rook has moved
+        assertEquals(100, StaticExchange.evaluate(state, capture(D2, D5, ROOK)));
+        black.put(D7, ROOK);
+        assertEquals(100 - 500, StaticExchange.evaluate(whiteToMove(white, black), capture(D2, D5, ROOK)));
+    }
+
+    @Test
+    void testKingDoesNotRecaptureIntoAttack() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(F1, ROOK);
+        white.put(F2, ROOK);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(F7, PAWN);
+        GameState state = whiteToMove(white, black);
+
+        // the king on g8 may not take back on f7 while the rook on f1 attacks it
+        assertEquals(100, StaticExchange.evaluate(state, capture(F2, F7, ROOK)));
+        white.remove(F1);
+        assertEquals(100 - 500, StaticExchange.evaluate(whiteToMove(white, black), capture(F2, F7, ROOK)));
+    }
+
+    @Test
+    void testThresholdMatchesEvaluation() {
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        MoveList moves = new MoveList();
+        RandomGames.forEachPosition(17, 20, 150, (board, state) -> {
+            generator.generateLegalMoves(board, moves);
+            for (int i = 0; i < moves.size(); i += 1) {
+                int move = moves.get(i);
+                if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                    continue;
+                }
+                int value = StaticExchange.evaluate(board, move);
+                for (int threshold : new int[] { -900, -500, -200, -1, 0, 1, 100, 200, 300, 800, 1000 }) {
+                    assertEquals(value >= threshold, StaticExchange.isAtLeast(board, move, threshold),
+                            Move.toString(move) + " " + threshold);
+                }
+                assertTrue(StaticExchange.isAtLeast(board, move, value));
+                assertFalse(StaticExchange.isAtLeast(board, move, value + 1));
+            }
+        });
+    }
+}
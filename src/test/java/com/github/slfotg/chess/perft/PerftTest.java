@@ -0,0 +1,98 @@
+package com.github.slfotg.chess.perft;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.reader.FenReader;
+
+/**
+ * Reference counts from https://www.chessprogramming.org/Perft_Results
+ */
+class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private final Perft perft = new Perft();
+
+    private long perft(String fen, int depth) {
+        return perft.perft(new SearchBoard(fromFen(fen)), depth);
+    }
+
+    @Test
+    void testInitialPosition() {
+        assertEquals(4_865_609L, perft.perft(new SearchBoard(ChessGame.newGame().getGameState()), 5));
+    }
+
+    @Test
+    void testKiwipete() {
+        assertEquals(4_085_603L, perft(KIWIPETE, 4));
+    }
+
+    @Test
+    void testPosition3() {
+        assertEquals(11_030_083L, perft("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 6));
+    }
+
+    @Test
+    void testPosition4() {
+        assertEquals(422_333L, perft("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 4));
+        // the same position with the colors swapped
+        assertEquals(422_333L, perft("r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", 4));
+    }
+
+    @Test
+    void testPosition5() {
+        assertEquals(2_103_487L, perft("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 4));
+    }
+
+    @Test
+    void testPosition6() {
+        assertEquals(3_894_594L,
+                perft("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10", 4));
+    }
+
+    @Test
+    void testGameStatePerft() {
+        assertEquals(197_281L, Perft.perft(ChessGame.newGame().getGameState(), 4));
+        assertEquals(97_862L, Perft.perft(fromFen(KIWIPETE), 3));
+    }
+
+    @Test
+    void testDivide() {
+        SearchBoard board = new SearchBoard(fromFen(KIWIPETE));
+        Map<String, Long> divide = perft.divide(board, 3);
+        assertEquals(48, divide.size());
+        assertEquals(97_862L, divide.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(2_059L, divide.get("e1g1"));
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testParallelPerft() {
+        try (ParallelPerft parallelPerft = new ParallelPerft(4, 2, null)) {
+            assertEquals(4_865_609L, parallelPerft.perft(ChessGame.newGame().getGameState(), 5));
+            assertEquals(4_085_603L, parallelPerft.perft(fromFen(KIWIPETE), 4));
+            Map<String, Long> divide = parallelPerft.divide(fromFen(KIWIPETE), 3);
+            assertEquals(perft.divide(new SearchBoard(fromFen(KIWIPETE)), 3), divide);
+        }
+    }
+
+    @Test
+    void testParallelPerftWithSharedTable() {
+        try (ParallelPerft parallelPerft = new ParallelPerft(4, 3, new PerftTable(16))) {
+            assertEquals(11_030_083L, parallelPerft.perft(fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"), 6));
+            assertEquals(3_894_594L, parallelPerft.perft(
+                    fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"), 4));
+        }
+    }
+
+    private static GameState fromFen(String fen) {
+        return new FenReader().read(fen);
+    }
+}
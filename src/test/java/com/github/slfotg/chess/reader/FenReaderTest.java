@@ -0,0 +1,112 @@
+package com.github.slfotg.chess.reader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Position;
+import com.github.slfotg.chess.writer.FenWriter;
+
+class FenReaderTest {
+
+    private static final String INITIAL = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private final FenReader reader = new FenReader();
+    private final FenWriter writer = new FenWriter();
+
+    @Test
+    void testInitialPosition() {
+        GameState initial = ChessGame.newGame().getGameState();
+        GameState state = reader.read(INITIAL);
+        assertEquals(initial.getBoard(), state.getBoard());
+        assertEquals(initial.getZobristKey(), state.getZobristKey());
+        assertEquals(INITIAL, writer.write(initial));
+    }
+
+    @Test
+    void testFields() {
+        GameState state = reader.read("r3k2r/8/8/3pP3/8/8/8/R3K3 w Qk d6 12 40");
+        assertEquals(Color.WHITE, state.getActiveColor());
+        assertEquals(CastlingRights.QUEEN_SIDE, state.getCurrentPlayerRights());
+        assertEquals(CastlingRights.KING_SIDE, state.getOpponentRights());
+        assertEquals(Position.D6, state.getEnPassant());
+        assertEquals(12, state.getHalfMoveClock());
+        assertEquals(40, state.getFullMoveNumber());
+
+        // clocks may be left out and extra spaces are allowed
+        state = reader.read("  4k3/8/8/8/8/8/8/4K3   b  -  - ");
+        assertEquals(Color.BLACK, state.getActiveColor());
+        assertEquals(CastlingRights.NONE, state.getCurrentPlayerRights());
+        assertEquals(0, state.getHalfMoveClock());
+        assertEquals(1, state.getFullMoveNumber());
+    }
+
+    @Test
+    void testRoundTripOfRandomGames() {
+        StringBuilder builder = new StringBuilder();
+        RandomGames.forEachPosition(3, 10, 120, (board, state) -> {
+            builder.setLength(0);
+            GameState copy = reader.read(writer.write(state, builder));
+            assertEquals(state.getBoard(), copy.getBoard());
+            assertEquals(state.getZobristKey(), copy.getZobristKey());
+            assertEquals(state.getHalfMoveClock(), copy.getHalfMoveClock());
+            assertEquals(state.getFullMoveNumber(), copy.getFullMoveNumber());
+            assertEquals(builder.toString(), writer.write(copy));
+        });
+    }
+
+    @Test
+    void testByteBufferOfLines() {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        StringBuilder builder = new StringBuilder();
+        GameState initial = ChessGame.newGame().getGameState();
+        writer.write(initial, buffer, builder);
+        buffer.put("\r\nnot a position\n".getBytes(StandardCharsets.US_ASCII));
+        writer.write(initial.nextPossibleStates().get(0), buffer, builder);
+        buffer.flip();
+
+        assertEquals(initial.getZobristKey(), reader.read(buffer).getZobristKey());
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> reader.read(buffer));
+        // the index is counted from the start of the line
+        assertTrue(error.getMessage().startsWith("invalid FEN at index 1:"), error.getMessage());
+        // a bad line is skipped
+        assertEquals(initial.nextPossibleStates().get(0).getZobristKey(), reader.read(buffer).getZobristKey());
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void testInvalidPositions() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQ - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                // castling rights need the king and rook on their home squares
+                "4k3/8/8/8/8/8/8/K7 w K - 0 1",
+                "4k3/8/8/8/8/8/8/7K w K - 0 1",
+                "4k3/8/8/8/8/8/8/4K3 w Q - 0 1",
+                "r4kr1/8/8/8/8/8/8/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                // the en passant rank must match the side to move
+                "rnbqkbnr/pppp1ppp/8/8/4p3/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 2",
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e6 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 x",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - a 1",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> reader.read(fen), fen);
+        }
+    }
+}
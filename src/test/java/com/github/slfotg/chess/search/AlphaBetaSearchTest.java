@@ -0,0 +1,100 @@
+package com.github.slfotg.chess.search;
+
+import static com.github.slfotg.chess.enums.Piece.*;
+import static com.github.slfotg.chess.enums.Position.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+
+class AlphaBetaSearchTest {
+
+    private final AlphaBetaSearch search = new AlphaBetaSearch(new NaiveEvaluationFunction());
+
+    private static GameState whiteToMove(Map<Position, Piece> white, Map<Position, Piece> black, Position whiteKing,
+            Position blackKing) {
+        // @formatter:off
+        return GameState.builder()
+                .activeColor(Color.WHITE)
+                .halfMoveClock(0)
+                .fullMoveNumber(1)
+                .board(new Board(white, black, whiteKing, blackKing))
+                .currentPlayerRights(CastlingRights.NONE)
+                .opponentRights(CastlingRights.NONE)
+                .build();
+        // @formatter:on
+    }
+
+    @Test
+    void testFindsBackRankMate() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(A1, ROOK);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(F7, PAWN);
+        black.put(G7, PAWN);
+        black.put(H7, PAWN);
+
+        SearchResult result = search.search(whiteToMove(white, black, G1, G8), SearchLimits.depth(4));
+        assertEquals(A1, result.getBestMove().getStartingPosition());
+        assertEquals(A8, result.getBestMove().getFinalPosition());
+        assertTrue(result.isMate());
+        assertEquals(AlphaBetaSearch.MATE - 1, result.getScore());
+        // the quiescence search generates the evasions of the check, so mate is
+        // seen by the first iteration
+        assertEquals(1, result.getDepth());
+    }
+
+    @Test
+    void testCapturesHangingQueen() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(D1, ROOK);
+        white.put(A2, PAWN);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(D5, QUEEN);
+        black.put(A7, PAWN);
+
+        SearchResult result = search.search(whiteToMove(white, black, G1, G8), SearchLimits.depth(3));
+        assertEquals(D1, result.getBestMove().getStartingPosition());
+        assertEquals(D5, result.getBestMove().getFinalPosition());
+        assertEquals(3, result.getDepth());
+        assertEquals(3, result.getPrincipalVariation().size());
+        assertTrue(result.getScore() > 0);
+    }
+
+    @Test
+    void testQuiescenceSeesRecapture() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(D1, QUEEN);
+        white.put(A2, PAWN);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(D5, PAWN);
+        black.put(E6, PAWN);
+        black.put(A7, PAWN);
+
+        // a search of one ply must not take the pawn defended by e6
+        SearchResult result = search.search(whiteToMove(white, black, G1, G8), SearchLimits.depth(1));
+        assertNotEquals(D5, result.getBestMove().getFinalPosition());
+        assertTrue(result.getScore() > 0);
+    }
+
+    @Test
+    void testNodeLimit() {
+        GameState initialState = ChessGame.newGame().getGameState();
+        SearchResult result = search.search(initialState,
+                SearchLimits.builder().maxDepth(20).maxNodes(10_000).build());
+        assertTrue(result.getDepth() < 20);
+        assertTrue(result.getNodes() <= 10_000);
+        assertTrue(initialState.getPossibleMoves().contains(result.getBestMove()));
+    }
+}
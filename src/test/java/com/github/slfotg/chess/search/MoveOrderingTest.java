@@ -0,0 +1,58 @@
+package com.github.slfotg.chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.SearchBoard;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+import com.github.slfotg.chess.move.Move;
+
+class MoveOrderingTest {
+
+    // squares by index: e2 = 12, e4 = 28, g1 = 6, f3 = 21, e7 = 52, e5 = 36
+    private static final int E2E4 = Move.of(12, 28, Piece.PAWN, Move.DOUBLE_PUSH);
+    private static final int G1F3 = Move.of(6, 21, Piece.KNIGHT);
+    private static final int E7E5 = Move.of(52, 36, Piece.PAWN, Move.DOUBLE_PUSH);
+
+    @Test
+    void testLearnsFromQuietCutoffs() {
+        MoveOrdering moveOrdering = new MoveOrdering();
+        SearchBoard board = new SearchBoard(ChessGame.newGame().getGameState());
+        moveOrdering.updateQuiet(board, 3, 4, G1F3, new int[] { E2E4 }, 1);
+        moveOrdering.updateQuiet(board, 3, 2, E2E4, new int[0], 0);
+
+        assertEquals(E2E4, moveOrdering.getFirstKiller(3));
+        assertEquals(G1F3, moveOrdering.getSecondKiller(3));
+        assertTrue(moveOrdering.getHistory(SearchBoard.WHITE, G1F3) > 0);
+        // the failed e2e4 lost more for depth 4 than it won back for depth 2
+        assertTrue(moveOrdering.getHistory(SearchBoard.WHITE, E2E4) < 0);
+        assertEquals(0, moveOrdering.getHistory(SearchBoard.BLACK, G1F3));
+
+        board.makeMove(E2E4);
+        assertEquals(Move.NONE, moveOrdering.getCounterMove(board));
+        moveOrdering.updateQuiet(board, 4, 1, E7E5, new int[0], 0);
+        assertEquals(E7E5, moveOrdering.getCounterMove(board));
+
+        // killers are dropped by a new search, history and countermoves are kept
+        int history = moveOrdering.getHistory(SearchBoard.WHITE, G1F3);
+        moveOrdering.newSearch();
+        assertEquals(Move.NONE, moveOrdering.getFirstKiller(3));
+        assertEquals(history / 2, moveOrdering.getHistory(SearchBoard.WHITE, G1F3));
+        assertEquals(E7E5, moveOrdering.getCounterMove(board));
+        moveOrdering.clear();
+        assertEquals(Move.NONE, moveOrdering.getCounterMove(board));
+        assertEquals(0, moveOrdering.getHistory(SearchBoard.WHITE, G1F3));
+    }
+
+    @Test
+    void testSearchReportsFirstMoveCutoffRate() {
+        AlphaBetaSearch search = new AlphaBetaSearch(new NaiveEvaluationFunction());
+        SearchResult result = search.search(ChessGame.newGame().getGameState(), SearchLimits.depth(5));
+        assertTrue(result.getCutoffs() > 0);
+        assertTrue(result.getFirstMoveCutoffs() <= result.getCutoffs());
+        assertTrue(result.getFirstMoveCutoffRate() > 0.5);
+    }
+}
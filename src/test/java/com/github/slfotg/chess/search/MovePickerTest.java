@@ -0,0 +1,70 @@
+package com.github.slfotg.chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.RandomGames;
+import com.github.slfotg.chess.move.ChessMoveGenerator;
+import com.github.slfotg.chess.move.Move;
+import com.github.slfotg.chess.move.MoveList;
+import com.github.slfotg.chess.move.StaticExchange;
+
+class MovePickerTest {
+
+    @Test
+    void testPicksEveryLegalMoveOnce() {
+        ChessMoveGenerator generator = new ChessMoveGenerator();
+        MovePicker picker = new MovePicker(generator);
+        MoveOrdering moveOrdering = new MoveOrdering();
+        Random random = new Random(7);
+        MoveList legal = new MoveList();
+        // moves of earlier positions stand in for stale hash moves and killers
+        int[] recent = new int[3];
+        RandomGames.forEachPosition(7, 20, 200, (board, state) -> {
+            if (board.getPly() > 0) {
+                System.arraycopy(recent, 0, recent, 1, 2);
+                recent[0] = board.getMove(board.getPly() - 1);
+            }
+            generator.generateLegalMoves(board, legal);
+            int hashMove = random.nextBoolean() && !legal.isEmpty() ? legal.get(random.nextInt(legal.size()))
+                    : recent[0];
+            if (board.getPly() % 2 == 0) {
+                picker.init(board, hashMove, recent[1], recent[2]);
+            } else {
+                picker.init(board, hashMove, moveOrdering, 0);
+            }
+
+            Set<Integer> picked = new HashSet<>();
+            boolean quiet = false;
+            for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+                assertTrue(legal.contains(move));
+                assertTrue(picked.add(move));
+                if (picked.size() == 1 && move == hashMove) {
+                    continue;
+                }
+                // killers and quiet moves only come after every capture that
+                // does not lose material
+                if (MovePicker.isQuiet(move)) {
+                    quiet = true;
+                } else if (quiet) {
+                    assertTrue(StaticExchange.evaluate(board, move) < 0);
+                }
+            }
+            assertEquals(legal.size(), picked.size());
+            assertEquals(Move.NONE, picker.next());
+
+            // later positions are picked with killers, history and countermoves
+            if (!legal.isEmpty()) {
+                int move = legal.get(random.nextInt(legal.size()));
+                if (MovePicker.isQuiet(move)) {
+                    moveOrdering.updateQuiet(board, 0, 1 + random.nextInt(8), move, recent, 0);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.slfotg.chess.search;
+
+import static com.github.slfotg.chess.enums.Piece.*;
+import static com.github.slfotg.chess.enums.Position.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.Board;
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.enums.CastlingRights;
+import com.github.slfotg.chess.enums.Color;
+import com.github.slfotg.chess.enums.Piece;
+import com.github.slfotg.chess.enums.Position;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+
+class ParallelSearchTest {
+
+    @Test
+    void testFindsBackRankMate() {
+        Map<Position, Piece> white = new EnumMap<>(Position.class);
+        white.put(A1, ROOK);
+        Map<Position, Piece> black = new EnumMap<>(Position.class);
+        black.put(F7, PAWN);
+        black.put(G7, PAWN);
+        black.put(H7, PAWN);
+        // @formatter:off
+        GameState state = GameState.builder()
+                .activeColor(Color.WHITE)
+                .halfMoveClock(0)
+                .fullMoveNumber(1)
+                .board(new Board(white, black, G1, G8))
+                .currentPlayerRights(CastlingRights.NONE)
+                .opponentRights(CastlingRights.NONE)
+                .build();
+        // @formatter:on
+
+        try (ParallelSearch search = new ParallelSearch(new NaiveEvaluationFunction(), 4, new TranspositionTable(1))) {
+            SearchResult result = search.search(state, SearchLimits.depth(4));
+            assertEquals(A1, result.getBestMove().getStartingPosition());
+            assertEquals(A8, result.getBestMove().getFinalPosition());
+            assertEquals(AlphaBetaSearch.MATE - 1, result.getScore());
+        }
+    }
+
+    @Test
+    void testSearchesToTheRequestedDepth() {
+        GameState initialState = ChessGame.newGame().getGameState();
+        try (ParallelSearch search = new ParallelSearch(new NaiveEvaluationFunction(), 3, new TranspositionTable(1))) {
+            for (int i = 0; i < 3; i += 1) {
+                SearchResult result = search.search(initialState, SearchLimits.depth(4));
+                assertEquals(4, result.getDepth());
+                assertTrue(initialState.getPossibleMoves().contains(result.getBestMove()));
+            }
+        }
+    }
+}
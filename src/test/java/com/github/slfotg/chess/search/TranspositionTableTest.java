@@ -0,0 +1,95 @@
+package com.github.slfotg.chess.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.slfotg.chess.ChessGame;
+import com.github.slfotg.chess.GameState;
+import com.github.slfotg.chess.evaluate.NaiveEvaluationFunction;
+
+class TranspositionTableTest {
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(key));
+
+        table.store(key, 0x2ABCDE, 7, TranspositionTable.UPPER_BOUND, -99_950);
+        long entry = table.probe(key);
+        assertEquals(0x2ABCDE, TranspositionTable.move(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.UPPER_BOUND, TranspositionTable.bound(entry));
+        assertEquals(-99_950, TranspositionTable.score(entry));
+
+        // same slot, different key
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(key ^ (1L << 40)));
+    }
+
+    @Test
+    void testReplacementPrefersDepth() {
+        TranspositionTable table = new TranspositionTable(1);
+        long deep = 42L;
+        long shallow = 42L + ((long) table.capacity() << 8);
+        table.store(deep, 1, 8, TranspositionTable.EXACT, 10);
+        table.store(shallow, 2, 3, TranspositionTable.EXACT, 20);
+        assertEquals(8, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(shallow));
+
+        // entries of an earlier search are always replaced
+        table.newSearch();
+        table.store(shallow, 2, 3, TranspositionTable.EXACT, 20);
+        assertEquals(TranspositionTable.NO_ENTRY, table.probe(deep));
+        assertEquals(20, TranspositionTable.score(table.probe(shallow)));
+    }
+
+    @Test
+    void testConcurrentWritersNeverProduceMismatchedEntries() throws InterruptedException {
+        TranspositionTable table = new TranspositionTable(1);
+        AtomicBoolean mismatch = new AtomicBoolean();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t += 1) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i += 1) {
+                    // a few keys per slot so threads keep overwriting each other
+                    long key = random.nextLong(16) * table.capacity() + random.nextInt(64);
+                    long expected = key * 0x9E37_79B9_7F4A_7C15L;
+                    if (random.nextBoolean()) {
+                        table.store(key, (int) expected & 0x3FFFFF, (int) (expected >>> 24) & 0x7F,
+                                TranspositionTable.EXACT, (int) (expected >> 48));
+                    } else {
+                        long entry = table.probe(key);
+                        if (entry != TranspositionTable.NO_ENTRY
+                                && (TranspositionTable.move(entry) != ((int) expected & 0x3FFFFF)
+                                        || TranspositionTable.score(entry) != (int) (expected >> 48))) {
+                            mismatch.set(true);
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(mismatch.get());
+    }
+
+    @Test
+    void testSharedTableSpeedsUpRepeatedSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        AlphaBetaSearch search = new AlphaBetaSearch(new NaiveEvaluationFunction(), table);
+        GameState state = ChessGame.newGame().getGameState();
+        SearchResult first = search.search(state, SearchLimits.depth(4));
+        assertTrue(table.hashfull() > 0);
+        SearchResult second = search.search(state, SearchLimits.depth(4));
+        assertEquals(first.getScore(), second.getScore());
+        assertTrue(second.getNodes() < first.getNodes());
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.slfotg.chess.evaluate;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link EvaluationKernels} written with the incubating Vector API of JDK
+ * 16 and later, using the widest vectors of the host.
+ *
+ * This class is only built by the {@code vector} Maven profile, which needs a
+ * JDK 16 or later, and only loads when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}. Select it with
+ * {@code -Dcom.github.slfotg.chess.kernels=com.github.slfotg.chess.evaluate.VectorKernels}.
+ * Lengths that are not a multiple of the vector length finish with scalar
+ * loops.
+ */
+public final class VectorKernels implements EvaluationKernels {
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // as many bytes as there are shorts, to narrow clipped values into
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(Math.max(SHORTS.vectorBitSize() / 2, 64)));
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public void update(short[] src, int srcOffset, short[] dst, int dstOffset, short[] weights, int[] added,
+            int addedCount, int[] removed, int removedCount, int length) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+            ShortVector values = ShortVector.fromArray(SHORTS, src, srcOffset + i);
+            for (int f = 0; f < addedCount; f += 1) {
+                values = values.add(ShortVector.fromArray(SHORTS, weights, added[f] + i));
+            }
+            for (int f = 0; f < removedCount; f += 1) {
+                values = values.sub(ShortVector.fromArray(SHORTS, weights, removed[f] + i));
+            }
+            values.intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i += 1) {
+            int value = src[srcOffset + i];
+            for (int f = 0; f < addedCount; f += 1) {
+                value += weights[added[f] + i];
+            }
+            for (int f = 0; f < removedCount; f += 1) {
+                value -= weights[removed[f] + i];
+            }
+            dst[dstOffset + i] = (short) value;
+        }
+    }
+
+    @Override
+    public void clip(short[] src, int srcOffset, byte[] dst, int dstOffset, int length, int max) {
+        int i = 0;
+        if (BYTES.length() == SHORTS.length()) {
+            for (int bound = SHORTS.loopBound(length); i < bound; i += SHORTS.length()) {
+                ShortVector clipped = ShortVector.fromArray(SHORTS, src, srcOffset + i).max((short) 0).min((short) max);
+                ((ByteVector) clipped.convertShape(VectorOperators.S2B, BYTES, 0)).intoArray(dst, dstOffset + i);
+            }
+        }
+        for (; i < length; i += 1) {
+            dst[dstOffset + i] = (byte) Math.max(0, Math.min(src[srcOffset + i], max));
+        }
+    }
+
+    @Override
+    public void affine(byte[] input, int inputLength, long[] weights, long[] sums, int pairCount) {
+        // each vector of sums stays in a register while every input is added, and
+        // multiplying the inputs that are 0 costs less than branching on them
+        int j = 0;
+        for (int bound = LONGS.loopBound(pairCount); j < bound; j += LONGS.length()) {
+            LongVector vector = LongVector.fromArray(LONGS, sums, j);
+            for (int i = 0; i < inputLength; i += 1) {
+                vector = vector.add(LongVector.fromArray(LONGS, weights, i * pairCount + j).mul(input[i]));
+            }
+            vector.intoArray(sums, j);
+        }
+        for (; j < pairCount; j += 1) {
+            long sum = sums[j];
+            for (int i = 0; i < inputLength; i += 1) {
+                sum += input[i] * weights[i * pairCount + j];
+            }
+            sums[j] = sum;
+        }
+    }
+}